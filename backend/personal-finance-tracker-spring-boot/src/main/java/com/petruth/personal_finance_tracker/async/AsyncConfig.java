@@ -0,0 +1,61 @@
+package com.petruth.personal_finance_tracker.async;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executors for work fanned out from a request or a scheduled job, also used by name
+ * from {@code @Async} listeners. Request tasks inherit the caller's SecurityContext, which the
+ * replica routing uses for read-your-writes.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Sub-queries of GET /api/users/{id}/dashboard. When the pool and queue are full the request
+    // thread runs the query itself, so load degrades to sequential instead of failing.
+    @Bean
+    public ThreadPoolTaskExecutor dashboardExecutor(
+            @Value("${app.dashboard.executor.pool-size:8}") int poolSize,
+            @Value("${app.dashboard.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(securityContextPropagation());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Budget alert evaluation: the daily run and the after-commit listener. Sized to the cores by
+    // default; when full, the submitting thread evaluates itself, which also stops the run paging ahead.
+    @Bean
+    public ThreadPoolTaskExecutor budgetAlertExecutor(
+            @Value("${app.budget-alerts.executor.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${app.budget-alerts.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("budget-alert-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Captured on the submitting thread; restored and cleared on the worker around each task
+    private static TaskDecorator securityContextPropagation() {
+        return DelegatingSecurityContextRunnable::new;
+    }
+}
@@ -0,0 +1,80 @@
+package com.petruth.personal_finance_tracker.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.petruth.personal_finance_tracker.dto.BudgetDTO;
+import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
+import com.petruth.personal_finance_tracker.dto.ChartSeriesDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.entity.User;
+
+import java.util.Collection;
+
+/**
+ * Rough retained-size estimate (bytes) of cached values, so caches are bounded by memory
+ * rather than entry count: one user's full transaction history is not worth the same as one category.
+ *
+ * Figures assume a 64-bit JVM with compressed oops; they only need to be proportional, not exact.
+ */
+public class CacheWeigher implements Weigher<Object, Object> {
+
+    private static final int ENTRY_OVERHEAD = 96;    // cache node + key
+    private static final int LIST_OVERHEAD = 40;
+    private static final int REFERENCE = 4;
+
+    private static final int TRANSACTION_DTO = 360;  // 16 fields, BigDecimal, 2-3 LocalDateTime
+    private static final int BUDGET_DTO = 200;
+    private static final int CATEGORY_DTO = 120;
+    private static final int DICTIONARY_ENTRY = 120; // map node, lowercase name, Long id
+    private static final int CHART_POINT = 140;
+    private static final int USER = 480;
+    private static final int UNKNOWN = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = ENTRY_OVERHEAD + estimate(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = LIST_OVERHEAD;
+            for (Object element : collection) {
+                bytes += REFERENCE + estimate(element);
+            }
+            return bytes;
+        }
+        if (value instanceof TransactionDTO dto) {
+            return TRANSACTION_DTO + chars(dto.getDescription()) + chars(dto.getCategoryName())
+                    + chars(dto.getMerchantName()) + chars(dto.getNotes()) + chars(dto.getTags());
+        }
+        if (value instanceof BudgetDTO) {
+            return BUDGET_DTO;
+        }
+        if (value instanceof CategoryDTO dto) {
+            return CATEGORY_DTO + chars(dto.getName()) + chars(dto.getIcon()) + chars(dto.getColor());
+        }
+        if (value instanceof CategoryDictionary dictionary) {
+            return LIST_OVERHEAD + (long) dictionary.size() * DICTIONARY_ENTRY;
+        }
+        if (value instanceof ChartSeriesDTO series) {
+            long bytes = LIST_OVERHEAD;
+            for (var point : series.points()) {
+                bytes += REFERENCE + CHART_POINT + chars(point.categoryName());
+            }
+            return bytes;
+        }
+        if (value instanceof User) {
+            return USER;
+        }
+        return UNKNOWN;
+    }
+
+    // Compact Latin-1 strings: header + array header + one byte per char
+    private static long chars(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+}
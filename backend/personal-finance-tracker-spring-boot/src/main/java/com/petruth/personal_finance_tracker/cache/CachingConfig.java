@@ -0,0 +1,72 @@
+package com.petruth.personal_finance_tracker.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Bounded Caffeine caches replacing the default unbounded ConcurrentMapCacheManager.
+ * Each cache is capped by approximate bytes (see {@link CacheWeigher}), expires entries
+ * that nobody read for a while, and records hit/miss stats exported through /actuator/metrics.
+ */
+@Configuration
+public class CachingConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.transactions.max-size:64MB}") DataSize transactionsSize,
+            @Value("${app.cache.transactions.expire-after-access:30m}") Duration transactionsTtl,
+            @Value("${app.cache.budgets.max-size:8MB}") DataSize budgetsSize,
+            @Value("${app.cache.budgets.expire-after-access:30m}") Duration budgetsTtl,
+            @Value("${app.cache.categories.max-size:4MB}") DataSize categoriesSize,
+            @Value("${app.cache.categories.expire-after-access:60m}") Duration categoriesTtl,
+            @Value("${app.cache.users.max-size:4MB}") DataSize usersSize,
+            @Value("${app.cache.users.expire-after-access:15m}") Duration usersTtl) {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        // Fallback for any cache name not registered below, so nothing is ever unbounded
+        cacheManager.setCaffeine(spec(DataSize.ofMegabytes(4), Duration.ofMinutes(30)));
+
+        cacheManager.registerCustomCache("transactions", spec(transactionsSize, transactionsTtl).build());
+        cacheManager.registerCustomCache("budgets", spec(budgetsSize, budgetsTtl).build());
+        cacheManager.registerCustomCache("categories", spec(categoriesSize, categoriesTtl).build());
+        cacheManager.registerCustomCache("users", spec(usersSize, usersTtl).build());
+
+        return cacheManager;
+    }
+
+    // cache.weighted.size{cache=...}: approximate bytes held, to compare against the configured max-size
+    @Bean
+    public MeterBinder cacheWeightMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+                return;
+            }
+            Gauge.builder("cache.weighted.size", cache, c -> c.getNativeCache().policy().eviction()
+                            .map(eviction -> eviction.weightedSize().orElse(0L))
+                            .orElse(0L))
+                    .tag("cache", name)
+                    .baseUnit("bytes")
+                    .description("Approximate memory held by the cache")
+                    .register(registry);
+        });
+    }
+
+    private static Caffeine<Object, Object> spec(DataSize maxSize, Duration expireAfterAccess) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(new CacheWeigher())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats();
+    }
+}
@@ -0,0 +1,100 @@
+package com.petruth.personal_finance_tracker.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.personal_finance_tracker.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user, per-cache generation counters folded into cache keys.
+ * A write bumps only the writer's generation, so their old entries become unreachable
+ * while every other user's entries keep hitting. Orphaned entries age out of the cache.
+ *
+ * A user's counter is dropped once it has not been read or bumped for longer than any cache keeps an
+ * unread entry, so the maps stay bounded by recently active users. Restarting from 0 is then safe:
+ * entries of the old generations were unreachable since the last bump and have expired as well.
+ *
+ * Used from SpEL as: key = "'user:' + #userId + ':' + @userCacheGenerations.current('transactions', #userId)"
+ */
+@Component("userCacheGenerations")
+public class UserCacheGenerations {
+
+    private final Map<String, Map<Long, AtomicLong>> generations = new ConcurrentHashMap<>();
+    // Shared data version each user's entries on this instance were last synced to
+    private final Map<Long, Long> syncedVersions;
+    private final CacheManager cacheManager;
+    private final UserDataVersions userDataVersions;
+    private final Duration expireAfterAccess;
+
+    public UserCacheGenerations(CacheManager cacheManager, UserDataVersions userDataVersions,
+                                @Value("${app.cache.generations.expire-after-access:2h}") Duration expireAfterAccess) {
+        this.cacheManager = cacheManager;
+        this.userDataVersions = userDataVersions;
+        this.expireAfterAccess = expireAfterAccess;
+        this.syncedVersions = Caffeine.newBuilder()
+                .expireAfterAccess(expireAfterAccess)
+                .<Long, Long>build()
+                .asMap();
+    }
+
+    public long current(String cacheName, long userId) {
+        Map<Long, AtomicLong> perUser = generations.get(cacheName);
+        if (perUser == null) {
+            return 0L;
+        }
+        AtomicLong generation = perUser.get(userId);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    /**
+     * Invalidate one user's entries. Runs after commit: bumping earlier would let a concurrent
+     * reader cache the pre-commit state under the new generation.
+     */
+    public void bump(String cacheName, long userId) {
+        // Every write path invalidates through here, so it also advances the ETag version. Registered
+        // first so the user's read-your-writes window is open before the new generation is, and no
+        // replica read fills it.
+        userDataVersions.bump(userId);
+        AfterCommit.run(() -> increment(cacheName, userId));
+    }
+
+    /**
+     * Writes on another instance advance the shared data version but not this instance's generations.
+     * Called with the version a response is about to be built for: when it differs from the one the
+     * user's entries were last synced to, all of them are dropped first.
+     */
+    public void sync(long userId, long dataVersion) {
+        Long previous = syncedVersions.put(userId, dataVersion);
+        if (previous == null || previous != dataVersion) {
+            cacheManager.getCacheNames().forEach(cacheName -> increment(cacheName, userId));
+        }
+    }
+
+    // For data shared by every user (e.g. predefined categories)
+    public void bumpAll(String cacheName) {
+        AfterCommit.run(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        userDataVersions.bumpAll();
+    }
+
+    private void increment(String cacheName, long userId) {
+        generations
+                .computeIfAbsent(cacheName, k -> Caffeine.newBuilder()
+                        .expireAfterAccess(expireAfterAccess)
+                        .<Long, AtomicLong>build()
+                        .asMap())
+                .computeIfAbsent(userId, k -> new AtomicLong())
+                .incrementAndGet();
+    }
+}
@@ -0,0 +1,88 @@
+package com.petruth.personal_finance_tracker.cache;
+
+import com.petruth.personal_finance_tracker.datasource.RecentWrites;
+import com.petruth.personal_finance_tracker.repository.UserDataVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+
+/**
+ * Per-user data version, advanced by every write to the user's transactions, budgets or categories.
+ * ETags are derived from it, so a conditional GET can be answered with 304 after one primary-key
+ * read instead of running the view's queries.
+ *
+ * The version lives in user_data_versions and is incremented in the writing transaction, so it
+ * commits together with the data and every instance sees the same value. Each instance's caches
+ * are separate; see {@link UserCacheGenerations#sync} for how they catch up with writes made elsewhere.
+ */
+@Component
+public class UserDataVersions {
+
+    // Row holding the version of data shared by every user (e.g. predefined categories)
+    private static final long SHARED = 0L;
+
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final RecentWrites recentWrites;
+    private final boolean replicaEnabled;
+
+    public UserDataVersions(UserDataVersionRepository userDataVersionRepository, RecentWrites recentWrites,
+                            @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.recentWrites = recentWrites;
+        this.replicaEnabled = replicaEnabled;
+    }
+
+    public long current(long userId) {
+        return userDataVersionRepository.currentVersion(userId);
+    }
+
+    @Transactional
+    public void bump(long userId) {
+        userDataVersionRepository.increment(userId);
+        recentWrites.record(userId);
+    }
+
+    @Transactional
+    public void bumpAll() {
+        userDataVersionRepository.increment(SHARED);
+    }
+
+    /**
+     * Whether a body built after reading {@code version} may carry that version's ETag.
+     * With a replica, reads outside the user's write window can come from a copy that lags behind
+     * the version; stored under the current ETag, such a body would be revalidated with 304 until
+     * the next write. So it only qualifies if the user's reads stayed on the primary the whole time
+     * (the window is still open afterwards) and no write landed while it was built.
+     */
+    public boolean describes(long userId, long version) {
+        if (!replicaEnabled) {
+            return true;
+        }
+        return recentWrites.wroteRecently(userId) && current(userId) == version;
+    }
+
+    /**
+     * Strong ETag for one representation: the user's data version plus the exact request
+     * (path and query string). Today's date is included because several views default
+     * their date range to "now" (current budgets, last 12 months).
+     */
+    public String etag(long userId, long version, String requestUri, String queryString) {
+        String request = queryString != null ? requestUri + "?" + queryString : requestUri;
+        return userId + "-" + version + "-" + LocalDate.now() + "-" + hash(request);
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
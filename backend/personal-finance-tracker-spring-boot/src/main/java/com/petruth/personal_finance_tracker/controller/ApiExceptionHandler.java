@@ -0,0 +1,17 @@
+package com.petruth.personal_finance_tracker.controller;
+
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Only the services' own parameter checks: their messages are fixed text written for the client.
+    // Anything else keeps the default error response, which does not include the message.
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> handleInvalidRequest(InvalidRequestException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
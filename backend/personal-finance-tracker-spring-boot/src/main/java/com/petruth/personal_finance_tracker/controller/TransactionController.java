@@ -1,5 +1,6 @@
 package com.petruth.personal_finance_tracker.controller;
 
+import com.petruth.personal_finance_tracker.dto.BulkResult;
 import com.petruth.personal_finance_tracker.dto.TransactionDTO;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.security.SecurityUtil;
@@ -8,6 +9,7 @@ import com.petruth.personal_finance_tracker.utils.TransactionMapper;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -54,6 +56,22 @@ public class TransactionController {
         return transactionMapper.toTransactionDTO(saved);
     }
 
+    // Up to 500 items per call; the user comes from the token, never from the payload
+    @PostMapping("/bulk")
+    public BulkResult createTransactions(@RequestBody List<TransactionDTO> transactionDTOs) {
+        return transactionService.createAll(securityUtil.getCurrentUserId(), transactionDTOs);
+    }
+
+    @PutMapping("/bulk")
+    public BulkResult updateTransactions(@RequestBody List<TransactionDTO> transactionDTOs) {
+        return transactionService.updateAll(securityUtil.getCurrentUserId(), transactionDTOs);
+    }
+
+    @DeleteMapping("/bulk")
+    public BulkResult deleteTransactions(@RequestBody List<Long> ids) {
+        return transactionService.deleteAll(securityUtil.getCurrentUserId(), ids);
+    }
+
     @DeleteMapping("/{id}")
     public String deleteTransaction(@PathVariable Long id) {
         Transaction transaction = transactionService.findById(id);
@@ -1,41 +1,95 @@
 package com.petruth.personal_finance_tracker.controller;
 
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
+import com.petruth.personal_finance_tracker.cache.UserDataVersions;
+import com.petruth.personal_finance_tracker.dto.BalancePointDTO;
 import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
 import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.ChartGranularity;
+import com.petruth.personal_finance_tracker.dto.ChartSeriesDTO;
+import com.petruth.personal_finance_tracker.dto.DashboardDTO;
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionCursorPage;
 import com.petruth.personal_finance_tracker.dto.TransactionDTO;
 import com.petruth.personal_finance_tracker.dto.UserResponse;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
 import com.petruth.personal_finance_tracker.security.SecurityUtil;
+import com.petruth.personal_finance_tracker.service.BalanceService;
 import com.petruth.personal_finance_tracker.service.BudgetService;
 import com.petruth.personal_finance_tracker.service.CategoryService;
+import com.petruth.personal_finance_tracker.service.DashboardService;
+import com.petruth.personal_finance_tracker.service.SpendingRollupService;
+import com.petruth.personal_finance_tracker.service.TransactionChartService;
 import com.petruth.personal_finance_tracker.service.TransactionService;
 import com.petruth.personal_finance_tracker.service.UserService;
+import com.petruth.personal_finance_tracker.utils.AcceptEncoding;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int STREAM_FLUSH_EVERY = 100;
+
     private final TransactionService transactionService;
     private final UserService userService;
     private final CategoryService categoryService;
     private final BudgetService budgetService;
+    private final SpendingRollupService spendingRollupService;
+    private final TransactionChartService transactionChartService;
+    private final DashboardService dashboardService;
+    private final BalanceService balanceService;
     private final SecurityUtil securityUtil;
+    private final ObjectMapper objectMapper;
+    private final UserDataVersions userDataVersions;
+    private final UserCacheGenerations userCacheGenerations;
 
     public UserController(TransactionService transactionService,
                           UserService userService,
                           CategoryService categoryService,
                           BudgetService budgetService,
-                          SecurityUtil securityUtil) {
+                          SpendingRollupService spendingRollupService,
+                          TransactionChartService transactionChartService,
+                          DashboardService dashboardService,
+                          BalanceService balanceService,
+                          SecurityUtil securityUtil,
+                          ObjectMapper objectMapper,
+                          UserDataVersions userDataVersions,
+                          UserCacheGenerations userCacheGenerations) {
         this.transactionService = transactionService;
         this.userService = userService;
         this.categoryService = categoryService;
         this.budgetService = budgetService;
+        this.spendingRollupService = spendingRollupService;
+        this.transactionChartService = transactionChartService;
+        this.dashboardService = dashboardService;
+        this.balanceService = balanceService;
         this.securityUtil = securityUtil;
+        this.objectMapper = objectMapper;
+        this.userDataVersions = userDataVersions;
+        this.userCacheGenerations = userCacheGenerations;
     }
 
     // Validate that the requesting user matches the userId in path
@@ -45,9 +99,30 @@ public class UserController {
         }
     }
 
+    // Answer If-None-Match from the user's data version alone; the body is only built on a mismatch
+    private <T> ResponseEntity<T> conditional(ServletWebRequest webRequest, Long userId, Supplier<T> body) {
+        HttpServletRequest request = webRequest.getRequest();
+        long version = userDataVersions.current(userId);
+        String etag = userDataVersions.etag(userId, version, request.getRequestURI(), request.getQueryString());
+
+        // private + no-cache: the browser may keep the body but must revalidate on every poll
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        // Another instance may have written since this one last cached the user's data
+        userCacheGenerations.sync(userId, version);
+        T result = body.get();
+        if (!userDataVersions.describes(userId, version)) {
+            // Possibly read from a lagging replica: no ETag, and the client must not keep it
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(result);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(result);
+    }
+
     // TransactionController.java
     @GetMapping("/{userId}/transactions/paginated")
-    public Page<TransactionDTO> getUserTransactionsPaginated(
+    public ResponseEntity<Page<TransactionDTO>> getUserTransactionsPaginated(
             @PathVariable Long userId,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String fromDate,
@@ -58,48 +133,203 @@ public class UserController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "date") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            ServletWebRequest webRequest
     ) {
         validateUserAccess(userId);
-        return transactionService.findByUserId(
+        return conditional(webRequest, userId, () -> transactionService.findByUserId(
                 userId.intValue(), type, fromDate, toDate,
                 categoryId, minAmount, maxAmount,
                 page, size, sortBy, sortDirection
-        );
+        ));
+    }
+
+    @GetMapping("/{userId}/transactions/cursor")
+    public ResponseEntity<TransactionCursorPage> getUserTransactionsAfterCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            ServletWebRequest webRequest
+    ) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId, () -> transactionService.findByUserIdAfterCursor(
+                userId.intValue(), type, fromDate, toDate,
+                categoryId, minAmount, maxAmount,
+                cursor, size, sortDirection
+        ));
     }
 
     @GetMapping("/{userId}/transactions")
-    public List<TransactionDTO> getUserTransactions(
+    public ResponseEntity<List<TransactionDTO>> getUserTransactions(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            ServletWebRequest webRequest
+    ) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId, () -> transactionService.findByUserId(userId.intValue(),
+                type, fromDate, toDate, categoryId, minAmount, maxAmount));
+    }
+
+    @GetMapping("/{userId}/transactions/search")
+    public ResponseEntity<Page<TransactionDTO>> searchUserTransactions(
+            @PathVariable Long userId,
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId, () -> transactionService.search(userId.intValue(), q,
+                type, fromDate, toDate, categoryId, minAmount, maxAmount, page, size));
+    }
+
+    // Full history as newline-delimited JSON, written row by row while the query is still running.
+    // Gzipped when the client's Accept-Encoding allows gzip (q > 0).
+    @GetMapping(value = "/{userId}/transactions/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamUserTransactions(
             @PathVariable Long userId,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String fromDate,
             @RequestParam(required = false) String toDate,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Double minAmount,
-            @RequestParam(required = false) Double maxAmount
+            @RequestParam(required = false) Double maxAmount,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         validateUserAccess(userId);
-        return transactionService.findByUserId(userId.intValue(), type, fromDate, toDate,
-                categoryId, minAmount, maxAmount);
+        boolean gzip = AcceptEncoding.allowsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192, true) : outputStream;
+            int[] written = {0};
+
+            transactionService.streamByUserId(userId.intValue(), type, fromDate, toDate,
+                    categoryId, minAmount, maxAmount, dto -> {
+                        try {
+                            out.write(objectMapper.writeValueAsBytes(dto));
+                            out.write('\n');
+                            // First row goes out at once, then in batches to keep syscalls down
+                            if (++written[0] == 1 || written[0] % STREAM_FLUSH_EVERY == 0) {
+                                out.flush();
+                            }
+                        } catch (IOException e) {
+                            // Client went away: abort the query instead of reading the rest of the history
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            out.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @GetMapping("/{userId}/transactions/chart")
-    public List<TransactionDTO> getUserChartTransactions(@PathVariable Long userId,
-                                                         @RequestParam Transaction.TransactionType type) {
+    public ResponseEntity<List<TransactionDTO>> getUserChartTransactions(@PathVariable Long userId,
+                                                                         @RequestParam Transaction.TransactionType type,
+                                                                         ServletWebRequest webRequest) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId,
+                () -> transactionService.findByUserIdAndTypeOrderByDate(userId.intValue(), type));
+    }
+
+    @GetMapping("/{userId}/transactions/chart/series")
+    public ResponseEntity<ChartSeriesDTO> getUserChartSeries(@PathVariable Long userId,
+                                                             @RequestParam Transaction.TransactionType type,
+                                                             @RequestParam(defaultValue = "MONTH") ChartGranularity granularity,
+                                                             @RequestParam(defaultValue = "false") boolean byCategory,
+                                                             @RequestParam(required = false) String fromDate,
+                                                             @RequestParam(required = false) String toDate,
+                                                             @RequestParam(defaultValue = "365") int maxPoints,
+                                                             ServletWebRequest webRequest) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId, () -> transactionChartService.getSeries(userId.intValue(),
+                type, granularity, byCategory, fromDate, toDate, maxPoints));
+    }
+
+    @GetMapping("/{userId}/transactions/monthly-totals")
+    public ResponseEntity<List<MonthlyTotalDTO>> getUserMonthlyTotals(@PathVariable Long userId,
+                                                                      @RequestParam(required = false) YearMonth fromMonth,
+                                                                      @RequestParam(required = false) YearMonth toMonth,
+                                                                      ServletWebRequest webRequest) {
+        validateUserAccess(userId);
+        YearMonth to = toMonth != null ? toMonth : YearMonth.now();
+        YearMonth from = fromMonth != null ? fromMonth : to.minusMonths(11);
+        return conditional(webRequest, userId, () -> spendingRollupService.getMonthlyTotals(userId, from, to));
+    }
+
+    // Balance (income minus expenses) at the end of the given day, today by default
+    @GetMapping("/{userId}/balance")
+    public ResponseEntity<BalancePointDTO> getUserBalance(@PathVariable Long userId,
+                                                          @RequestParam(required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                          ServletWebRequest webRequest) {
+        validateUserAccess(userId);
+        LocalDate day = date != null ? date : LocalDate.now();
+        return conditional(webRequest, userId, () -> balanceService.getBalanceAt(userId, day));
+    }
+
+    // Closing balance per month, for the balance-over-time line
+    @GetMapping("/{userId}/balance/monthly")
+    public ResponseEntity<List<BalancePointDTO>> getUserMonthlyBalances(@PathVariable Long userId,
+                                                                        @RequestParam(required = false) YearMonth fromMonth,
+                                                                        @RequestParam(required = false) YearMonth toMonth,
+                                                                        ServletWebRequest webRequest) {
         validateUserAccess(userId);
-        return transactionService.findByUserIdAndTypeOrderByDate(userId.intValue(), type);
+        YearMonth to = toMonth != null ? toMonth : YearMonth.now();
+        YearMonth from = fromMonth != null ? fromMonth : to.minusMonths(11);
+        return conditional(webRequest, userId, () -> balanceService.getMonthlyBalances(userId, from, to));
     }
 
     @GetMapping("/{userId}/categories")
-    public List<CategoryDTO> getCategoriesByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<CategoryDTO>> getCategoriesByUser(@PathVariable Long userId,
+                                                                 ServletWebRequest webRequest) {
         validateUserAccess(userId);
-        return categoryService.getAllCategoriesForUser(userId);
+        return conditional(webRequest, userId, () -> categoryService.getAllCategoriesForUser(userId));
     }
 
     @GetMapping("/{userId}/budgets")
-    public List<BudgetWithSpending> getBudgetsByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<BudgetWithSpending>> getBudgetsByUser(@PathVariable Long userId,
+                                                                     ServletWebRequest webRequest) {
+        validateUserAccess(userId);
+        return conditional(webRequest, userId, () -> budgetService.getAllBudgetsWithSpending(userId));
+    }
+
+    // Categories, budgets with spending, recent transactions, monthly totals and account stats in one round trip
+    @GetMapping("/{userId}/dashboard")
+    public ResponseEntity<DashboardDTO> getDashboard(@PathVariable Long userId,
+                                                     @RequestParam(defaultValue = "10") int recent,
+                                                     @RequestParam(defaultValue = "12") int months,
+                                                     ServletWebRequest webRequest) {
         validateUserAccess(userId);
-        return budgetService.getAllBudgetsWithSpending(userId);
+        return conditional(webRequest, userId, () -> dashboardService.getDashboard(userId, recent, months));
     }
 
     @GetMapping("/me")
@@ -0,0 +1,37 @@
+package com.petruth.personal_finance_tracker.datasource;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petruth.personal_finance_tracker.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Users who committed a write on this instance within the read-your-writes window; their reads
+ * stay on the primary (see {@link ReplicaRoutingDataSource}). Entries expire with the window,
+ * so only users who wrote in the last few seconds are held.
+ */
+@Component
+public class RecentWrites {
+
+    private final Set<Long> writers;
+
+    public RecentWrites(@Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.writers = Collections.newSetFromMap(Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .<Long, Boolean>build()
+                .asMap());
+    }
+
+    // Starts (or restarts) the user's window once the write has committed
+    public void record(long userId) {
+        AfterCommit.run(() -> writers.add(userId));
+    }
+
+    public boolean wroteRecently(long userId) {
+        return writers.contains(userId);
+    }
+}
@@ -0,0 +1,77 @@
+package com.petruth.personal_finance_tracker.datasource;
+
+import com.petruth.personal_finance_tracker.security.SecurityUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary/replica connection pools, only when app.datasource.replica.enabled=true.
+ * Otherwise Spring Boot's single auto-configured pool is used unchanged.
+ *
+ * The primary pool keeps the spring.datasource.* settings (including spring.datasource.hikari.*);
+ * the replica pool takes app.datasource.replica.url/username/password and app.datasource.replica.hikari.*.
+ * Flyway, JPA and everything else see one DataSource: the lazy routing proxy.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Value("${spring.datasource.url}") String url,
+                                              @Value("${spring.datasource.username}") String username,
+                                              @Value("${spring.datasource.password}") String password) {
+        return pool("primary", url, username, password);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource replica = pool("replica", url, username, password);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 RecentWrites recentWrites,
+                                 SecurityUtil securityUtil) {
+        return routing(primaryDataSource, replicaDataSource, recentWrites, securityUtil);
+    }
+
+    private static DataSource routing(DataSource primary, DataSource replica, RecentWrites recentWrites,
+                                      SecurityUtil securityUtil) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(recentWrites, securityUtil);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Route.PRIMARY, primary,
+                ReplicaRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Defers the physical connection (and so the routing decision) to the first statement,
+        // by which point the transaction's read-only flag is visible
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        return pool;
+    }
+}
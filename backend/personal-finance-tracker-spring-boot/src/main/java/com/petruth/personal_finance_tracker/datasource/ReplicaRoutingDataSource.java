@@ -0,0 +1,50 @@
+package com.petruth.personal_finance_tracker.datasource;
+
+import com.petruth.personal_finance_tracker.security.SecurityUtil;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ *
+ * A user who committed a write within the read-your-writes window ({@link RecentWrites}) keeps
+ * reading from the primary, so their own changes never disappear behind replication lag. Requests
+ * without an authenticated user (schedulers, startup jobs) only need the read-only flag.
+ *
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager asks for a connection before the read-only flag is bound to the thread.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final RecentWrites recentWrites;
+    private final SecurityUtil securityUtil;
+
+    public ReplicaRoutingDataSource(RecentWrites recentWrites, SecurityUtil securityUtil) {
+        this.recentWrites = recentWrites;
+        this.securityUtil = securityUtil;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route();
+    }
+
+    Route route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+
+        Optional<Long> userId = securityUtil.findCurrentUserId();
+        if (userId.isPresent() && recentWrites.wroteRecently(userId.get())) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
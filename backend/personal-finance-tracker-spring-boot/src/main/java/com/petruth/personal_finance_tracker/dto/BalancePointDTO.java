@@ -0,0 +1,13 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Balance (income minus expenses) at the end of the given day
+ */
+public record BalancePointDTO(
+        LocalDate date,
+        BigDecimal balance
+) {
+}
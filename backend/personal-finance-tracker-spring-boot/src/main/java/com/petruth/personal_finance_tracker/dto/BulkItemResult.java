@@ -0,0 +1,23 @@
+package com.petruth.personal_finance_tracker.dto;
+
+/**
+ * Outcome of one element of a bulk request; index is its position in the request array.
+ */
+public record BulkItemResult(
+        int index,
+        Long id,
+        Status status,
+        String error
+) {
+    public enum Status {
+        CREATED, UPDATED, DELETED, FAILED
+    }
+
+    public static BulkItemResult success(int index, Long id, Status status) {
+        return new BulkItemResult(index, id, status, null);
+    }
+
+    public static BulkItemResult failed(int index, Long id, String error) {
+        return new BulkItemResult(index, id, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Valid items are persisted together in one database transaction; invalid ones are reported and skipped.
+ */
+public record BulkResult(
+        int succeeded,
+        int failed,
+        List<BulkItemResult> items
+) {
+    public static BulkResult of(List<BulkItemResult> items) {
+        int failed = (int) items.stream()
+                .filter(item -> item.status() == BulkItemResult.Status.FAILED)
+                .count();
+        return new BulkResult(items.size() - failed, failed, items);
+    }
+}
@@ -0,0 +1,42 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import com.petruth.personal_finance_tracker.entity.Category;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Category ids by name (case-insensitive) for one user, so imports categorize rows without a query each.
+ * The user's own categories shadow predefined ones of the same name; within each group the lowest id wins.
+ */
+public record CategoryDictionary(Map<String, Long> idsByName) {
+
+    public static CategoryDictionary of(List<Category> own, List<Category> predefined) {
+        Map<String, Long> idsByName = new HashMap<>();
+        add(idsByName, own);
+        add(idsByName, predefined);
+        return new CategoryDictionary(Map.copyOf(idsByName));
+    }
+
+    private static void add(Map<String, Long> idsByName, List<Category> categories) {
+        Map<String, Long> group = new HashMap<>();
+        for (Category category : categories) {
+            group.merge(key(category.getName()), category.getId(), Math::min);
+        }
+        group.forEach(idsByName::putIfAbsent);
+    }
+
+    public Long idOf(String name) {
+        return name == null ? null : idsByName.get(key(name));
+    }
+
+    public int size() {
+        return idsByName.size();
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
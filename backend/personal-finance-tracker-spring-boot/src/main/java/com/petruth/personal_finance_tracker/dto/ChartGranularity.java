@@ -0,0 +1,9 @@
+package com.petruth.personal_finance_tracker.dto;
+
+/**
+ * Time bucket size for aggregated chart series.
+ * WEEK buckets start on Monday, MONTH and YEAR buckets on their first day.
+ */
+public enum ChartGranularity {
+    DAY, WEEK, MONTH, YEAR
+}
@@ -0,0 +1,18 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One aggregated point of a chart series.
+ * bucket is the first day of the period (of the merged window when the series is downsampled);
+ * categoryId/categoryName are null unless the series is split by category.
+ */
+public record ChartPointDTO(
+        LocalDate bucket,
+        Long categoryId,
+        String categoryName,
+        BigDecimal total,
+        long count
+) {
+}
@@ -0,0 +1,14 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+
+import java.util.List;
+
+public record ChartSeriesDTO(
+        Transaction.TransactionType type,
+        ChartGranularity granularity,
+        boolean byCategory,
+        boolean downsampled,
+        List<ChartPointDTO> points
+) {
+}
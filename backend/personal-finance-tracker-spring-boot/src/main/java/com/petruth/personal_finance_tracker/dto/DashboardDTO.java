@@ -0,0 +1,15 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows on load, fetched in one request
+ */
+public record DashboardDTO(
+        List<CategoryDTO> categories,
+        List<BudgetWithSpending> budgets,
+        List<TransactionDTO> recentTransactions,
+        List<MonthlyTotalDTO> monthlyTotals,
+        AccountStatsDTO accountStats
+) {
+}
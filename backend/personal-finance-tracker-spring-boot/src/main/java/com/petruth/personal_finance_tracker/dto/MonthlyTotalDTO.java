@@ -0,0 +1,17 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sum and count of a user's transactions of one type in one calendar month
+ */
+public record MonthlyTotalDTO(
+        LocalDate month,
+        Transaction.TransactionType type,
+        BigDecimal total,
+        Long count
+) {
+}
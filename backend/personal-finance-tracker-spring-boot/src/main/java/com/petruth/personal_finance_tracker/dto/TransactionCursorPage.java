@@ -0,0 +1,15 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated transaction history.
+ * No total count is computed; pass nextCursor back to get the following slice.
+ */
+public record TransactionCursorPage(
+        List<TransactionDTO> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+}
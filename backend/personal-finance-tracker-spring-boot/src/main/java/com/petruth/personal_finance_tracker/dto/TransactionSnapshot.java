@@ -0,0 +1,30 @@
+package com.petruth.personal_finance_tracker.dto;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the columns derived data (rollups, indexes, counters) depends on.
+ * Taken before an update so the old values survive Hibernate merging new state into the managed entity.
+ */
+public record TransactionSnapshot(
+        Long id,
+        Long userId,
+        Long categoryId,
+        Transaction.TransactionType type,
+        BigDecimal amount,
+        LocalDateTime date
+) {
+    public static TransactionSnapshot of(Transaction transaction) {
+        return new TransactionSnapshot(
+                transaction.getId(),
+                transaction.getUser().getId(),
+                transaction.getCategory() != null ? transaction.getCategory().getId() : null,
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getDate()
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.petruth.personal_finance_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A user's balance (income minus expenses) over every transaction dated before {@code monthStart}.
+ * Built on demand from the monthly rollups; rows after a back-dated write are deleted and rebuilt
+ * the next time they are needed.
+ */
+@Entity
+@IdClass(BalanceCheckpoint.Key.class)
+@Table(name = "balance_checkpoints")
+public class BalanceCheckpoint {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "balance", precision = 15, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    public BalanceCheckpoint() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public record Key(Long userId, LocalDate monthStart) implements Serializable {
+    }
+}
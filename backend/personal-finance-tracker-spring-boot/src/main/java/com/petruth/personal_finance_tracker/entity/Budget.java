@@ -9,8 +9,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "budgets")
+@Table(name = "budgets", indexes = {
+        @Index(name = "idx_budgets_user", columnList = "user_id"),
+        @Index(name = "idx_budgets_alert_dirty", columnList = "alert_dirty, id")
+})
 public class Budget {
+
+    // Ordered: an alert is only sent when the level goes up
+    public enum AlertLevel {
+        NONE, WARNING, OVER_BUDGET
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +47,26 @@ public class Budget {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Maintained in the database by BudgetSpendingService (relative UPDATEs on EXPENSE writes);
+    // never written from the entity, so saving a stale Budget cannot overwrite a newer total
+    @Column(name = "spent_amount", precision = 15, scale = 2, insertable = false, updatable = false)
+    private BigDecimal spentAmount = BigDecimal.ZERO;
+
+    // Alert state, written only by BudgetAlertService's conditional UPDATE
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_alert_level", insertable = false, updatable = false)
+    private AlertLevel lastAlertLevel = AlertLevel.NONE;
+
+    @Column(name = "last_alert_at", insertable = false, updatable = false)
+    private LocalDateTime lastAlertAt;
+
+    @Column(name = "last_evaluated_spent", precision = 15, scale = 2, insertable = false, updatable = false)
+    private BigDecimal lastEvaluatedSpent;
+
+    // Set with every spend counter change, cleared once the new total has been evaluated
+    @Column(name = "alert_dirty", insertable = false, updatable = false)
+    private Boolean alertDirty = true;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -128,6 +157,26 @@ public class Budget {
         this.alertThreshold = alertThreshold;
     }
 
+    public BigDecimal getSpentAmount() {
+        return spentAmount;
+    }
+
+    public AlertLevel getLastAlertLevel() {
+        return lastAlertLevel;
+    }
+
+    public LocalDateTime getLastAlertAt() {
+        return lastAlertAt;
+    }
+
+    public BigDecimal getLastEvaluatedSpent() {
+        return lastEvaluatedSpent;
+    }
+
+    public Boolean getAlertDirty() {
+        return alertDirty;
+    }
+
     public Boolean getIsActive() {
         return isActive;
     }
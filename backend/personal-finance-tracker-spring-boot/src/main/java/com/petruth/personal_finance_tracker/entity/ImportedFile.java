@@ -6,7 +6,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "imported_files")
+@Table(name = "imported_files", indexes = @Index(name = "idx_imported_files_imported_at", columnList = "imported_at"))
 public class ImportedFile {
 
     @Id
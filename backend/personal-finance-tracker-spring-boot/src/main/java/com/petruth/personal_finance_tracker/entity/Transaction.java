@@ -8,14 +8,23 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+// Indexes are created by db/migration/V2__rollups_and_query_indexes.sql; declared here for reference
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_date", columnList = "user_id, date, id"),
+        @Index(name = "idx_transactions_user_type_date", columnList = "user_id, type, date"),
+        @Index(name = "idx_transactions_user_category_date", columnList = "user_id, category_id, date"),
+        @Index(name = "idx_transactions_amount_hash_user", columnList = "amount_hash, user_id")
+})
 public class Transaction {
     public enum TransactionType {
         INCOME, EXPENSE
     }
 
+    // Pooled ids instead of IDENTITY: Hibernate reserves 50 ids per round trip and can batch the INSERTs.
+    // MySQL has no sequences, so this is backed by the one-row table transaction_seq (V4 migration).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -0,0 +1,47 @@
+package com.petruth.personal_finance_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+
+/**
+ * One row per (user, normalized term, transaction): the inverted index behind transaction search.
+ * The primary key doubles as the lookup index, so a prefix search reads transaction ids straight off it.
+ * Written through native statements in TransactionSearchTermRepository; mapped here for Criteria subqueries.
+ */
+@Entity
+@IdClass(TransactionSearchTerm.Key.class)
+@Table(name = "transaction_search_terms")
+public class TransactionSearchTerm {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "term", nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Id
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    public TransactionSearchTerm() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public record Key(Long userId, String term, Long transactionId) implements Serializable {
+    }
+}
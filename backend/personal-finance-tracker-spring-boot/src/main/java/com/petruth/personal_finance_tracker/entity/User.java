@@ -9,7 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_email_verification_token", columnList = "email_verification_token"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,29 @@
+package com.petruth.personal_finance_tracker.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Count of committed writes to one user's transactions, budgets or categories.
+ * Only ever changed through UserDataVersionRepository's atomic upsert.
+ */
+@Entity
+@Table(name = "user_data_versions")
+public class UserDataVersion {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public UserDataVersion() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
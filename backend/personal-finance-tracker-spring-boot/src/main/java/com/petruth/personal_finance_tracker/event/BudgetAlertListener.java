@@ -0,0 +1,58 @@
+package com.petruth.personal_finance_tracker.event;
+
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.service.BudgetAlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-time budget alerts: once a transaction write (single save, bulk call or import) commits,
+ * the budgets it touched are evaluated off the request thread. A budget that fails here stays
+ * dirty and is picked up by the daily BudgetAlertScheduler run.
+ */
+@Component
+public class BudgetAlertListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetAlertListener.class);
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetAlertService budgetAlertService;
+
+    public BudgetAlertListener(BudgetRepository budgetRepository, BudgetAlertService budgetAlertService) {
+        this.budgetRepository = budgetRepository;
+        this.budgetAlertService = budgetAlertService;
+    }
+
+    @Async("budgetAlertExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBudgetSpendingChanged(BudgetSpendingChangedEvent event) {
+        if (event.budgetIds().isEmpty()) {
+            return;
+        }
+
+        // A write usually touches one user's budgets; each user's are evaluated (and mailed) together
+        Map<Long, List<Budget>> budgetsByUser = new LinkedHashMap<>();
+        for (Budget budget : budgetRepository.findAlertDirtyByIdIn(event.budgetIds(), LocalDate.now())) {
+            budgetsByUser.computeIfAbsent(budget.getUser().getId(), id -> new ArrayList<>()).add(budget);
+        }
+
+        budgetsByUser.forEach((userId, budgets) -> {
+            try {
+                budgetAlertService.evaluate(budgets);
+            } catch (Exception e) {
+                logger.error("❌ Failed to evaluate budgets of user {} after write: {}", userId, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.petruth.personal_finance_tracker.event;
+
+import java.util.Set;
+
+/**
+ * Budgets whose spend counter a transaction changed. Published once per database transaction,
+ * on the first change; the set is complete by the time after-commit listeners see it.
+ */
+public record BudgetSpendingChangedEvent(Set<Long> budgetIds) {
+}
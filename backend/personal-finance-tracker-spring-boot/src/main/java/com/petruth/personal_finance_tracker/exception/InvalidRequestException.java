@@ -0,0 +1,16 @@
+package com.petruth.personal_finance_tracker.exception;
+
+/**
+ * A request parameter the client got wrong (page size, cursor, date, month range, ...).
+ * Answered with 400 and the message, so messages must be fixed text safe to show to clients.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,54 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.BalanceCheckpoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, BalanceCheckpoint.Key> {
+
+    Optional<BalanceCheckpoint> findFirstByUserIdAndMonthStartLessThanEqualOrderByMonthStartDesc(
+            Long userId, LocalDate monthStart);
+
+    List<BalanceCheckpoint> findByUserIdAndMonthStartBetweenOrderByMonthStart(
+            Long userId, LocalDate fromMonth, LocalDate toMonth);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "balance_checkpoints"))
+    @Query(value = """
+            INSERT IGNORE INTO balance_checkpoints (user_id, month_start, balance)
+            VALUES (:userId, :monthStart, :balance)
+            """, nativeQuery = true)
+    void insertCheckpoint(Long userId, LocalDate monthStart, BigDecimal balance);
+
+    // Checkpoint M covers dates before M, so a write dated on or after M leaves it intact
+    @Modifying
+    @Query("DELETE FROM BalanceCheckpoint b WHERE b.userId = :userId AND b.monthStart > :date")
+    int deleteAfter(Long userId, LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM BalanceCheckpoint b WHERE b.userId = :userId")
+    void deleteByUserId(Long userId);
+
+    // Builders lock the user row exclusively and back-dated writers lock it shared, so a checkpoint
+    // is never computed from rollups that an in-flight write is about to change.
+    // LOCK IN SHARE MODE rather than FOR SHARE: understood by both MySQL and MariaDB.
+    // The query space stops Hibernate flushing pending transaction INSERTs before the lock.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockUserForCheckpointBuild(Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "SELECT id FROM users WHERE id = :userId LOCK IN SHARE MODE", nativeQuery = true)
+    Long lockUserForCheckpointInvalidation(Long userId);
+}
@@ -1,13 +1,116 @@
 package com.petruth.personal_finance_tracker.repository;
 
 import com.petruth.personal_finance_tracker.entity.Budget;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @CrossOrigin("http://localhost:4200")
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findByUserId(Long userId);
     long countByUserId(Long userId);
+
+    // Budgets with everything BudgetWithSpending needs, in one statement
+    @Query("SELECT b FROM Budget b JOIN FETCH b.user JOIN FETCH b.category WHERE b.user.id = :userId")
+    List<Budget> findByUserIdWithCategory(Long userId);
+
+    // Current read with an exclusive lock: sees budgets committed after this transaction's snapshot,
+    // and a concurrent budget edit waits until the write holding it commits. Exclusive because
+    // addSpent updates these rows next; two writers sharing the lock would deadlock upgrading it.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "budgets"))
+    @Query(value = """
+            SELECT id AS budgetId, category_id AS categoryId,
+                   DATE_FORMAT(start_date, '%Y-%m-%d') AS startDate,
+                   DATE_FORMAT(end_date, '%Y-%m-%d') AS endDate
+            FROM budgets
+            WHERE user_id = :userId AND start_date IS NOT NULL AND end_date IS NOT NULL
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<BudgetWindowView> lockWindowsByUserId(Long userId);
+
+    // Relative update, so concurrent writers never lose each other's amounts
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "budgets"))
+    @Query(value = "UPDATE budgets SET spent_amount = spent_amount + :delta, alert_dirty = TRUE WHERE id = :budgetId",
+            nativeQuery = true)
+    void addSpent(Long budgetId, BigDecimal delta);
+
+    // After a budget is created or its category/period changes.
+    // The subquery is a locking read, so transactions committed after our snapshot are included.
+    @Modifying
+    @Query(value = """
+            UPDATE budgets b
+            SET b.spent_amount = (
+                SELECT COALESCE(SUM(t.amount), 0)
+                FROM transactions t
+                WHERE t.user_id = b.user_id
+                  AND t.category_id = b.category_id
+                  AND t.type = 'EXPENSE'
+                  AND t.date >= b.start_date
+                  AND t.date < b.end_date + INTERVAL 1 DAY),
+                b.alert_dirty = TRUE
+            WHERE b.id = :budgetId
+            """, nativeQuery = true)
+    void recomputeSpent(Long budgetId);
+
+    // Rewrites only the counters that differ from the transactions; returns how many had drifted.
+    // The GROUP BY keeps the derived table materialized, which MySQL needs to update budgets from it.
+    @Modifying
+    @Query(value = """
+            UPDATE budgets b
+            JOIN (SELECT b2.id, COALESCE(SUM(t.amount), 0) AS actual
+                  FROM budgets b2
+                  LEFT JOIN transactions t ON t.user_id = b2.user_id
+                                          AND t.category_id = b2.category_id
+                                          AND t.type = 'EXPENSE'
+                                          AND t.date >= b2.start_date
+                                          AND t.date < b2.end_date + INTERVAL 1 DAY
+                  WHERE b2.user_id = :userId
+                  GROUP BY b2.id) s ON s.id = b.id
+            SET b.spent_amount = s.actual, b.alert_dirty = TRUE
+            WHERE b.spent_amount <> s.actual
+            """, nativeQuery = true)
+    int reconcileSpentForUser(Long userId);
+
+    // Keyset page of budgets whose spending changed since they were last evaluated.
+    // Budgets that have not started yet stay dirty until they do.
+    @Query("""
+            SELECT b FROM Budget b JOIN FETCH b.user u JOIN FETCH b.category
+            WHERE b.alertDirty = true AND b.id > :afterId AND b.startDate <= :today AND u.emailVerified = true
+            ORDER BY b.id
+            """)
+    List<Budget> findAlertDirtyAfter(Long afterId, LocalDate today, Limit limit);
+
+    // Same filter, for the budgets a committed write touched
+    @Query("""
+            SELECT b FROM Budget b JOIN FETCH b.user u JOIN FETCH b.category
+            WHERE b.id IN :budgetIds AND b.alertDirty = true AND b.startDate <= :today AND u.emailVerified = true
+            """)
+    List<Budget> findAlertDirtyByIdIn(Collection<Long> budgetIds, LocalDate today);
+
+    // Records an evaluation only if nothing moved since the budget was read: the level is the one the
+    // evaluator started from and the counter still holds the total it judged. Returns 0 when it lost.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "budgets"))
+    @Query(value = """
+            UPDATE budgets
+            SET last_alert_level = :level,
+                last_evaluated_spent = spent_amount,
+                last_alert_at = COALESCE(:alertAt, last_alert_at),
+                alert_dirty = FALSE
+            WHERE id = :budgetId AND last_alert_level = :expectedLevel AND spent_amount = :evaluatedSpent
+            """, nativeQuery = true)
+    int recordAlertEvaluation(Long budgetId, String expectedLevel, BigDecimal evaluatedSpent,
+                              String level, LocalDateTime alertAt);
 }
@@ -0,0 +1,12 @@
+package com.petruth.personal_finance_tracker.repository;
+
+/**
+ * Category and period of one budget, for attributing transaction deltas.
+ * Dates come back as 'yyyy-MM-dd' text to stay driver independent.
+ */
+public interface BudgetWindowView {
+    Long getBudgetId();
+    Long getCategoryId();
+    String getStartDate();
+    String getEndDate();
+}
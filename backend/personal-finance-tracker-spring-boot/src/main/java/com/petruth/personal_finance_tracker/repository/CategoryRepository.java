@@ -10,5 +10,4 @@ import java.util.List;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByUserId(Long userId);
     List<Category> findByUserIsNull();
-    Category findByName(String name);
 }
@@ -0,0 +1,14 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of an aggregated chart query. The bucket comes back as 'yyyy-MM-dd' text to stay driver independent.
+ */
+public interface ChartBucketView {
+    String getBucket();
+    Long getCategoryId();
+    String getCategoryName();
+    BigDecimal getTotal();
+    Long getTxCount();
+}
@@ -0,0 +1,38 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.EmailOutboxMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Due messages, skipping rows another dispatcher instance is claiming right now
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "email_outbox"))
+    @Query(value = """
+            SELECT id FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY next_attempt_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockDueIds(LocalDateTime now, int limit);
+
+    // Claimed rows are not due again until the lease runs out, so the send can happen outside the lock
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.nextAttemptAt = :leaseUntil WHERE m.id IN :ids")
+    void lease(Collection<Long> ids, LocalDateTime leaseUntil);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status = :status AND m.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(EmailOutboxMessage.Status status, LocalDateTime before);
+}
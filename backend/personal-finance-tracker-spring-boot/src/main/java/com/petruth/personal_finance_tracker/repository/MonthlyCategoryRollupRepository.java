@@ -0,0 +1,73 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.entity.MonthlyCategoryRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlyCategoryRollupRepository extends JpaRepository<MonthlyCategoryRollup, Long> {
+
+    // Atomic upsert, so concurrent writers to the same bucket never lose an increment.
+    // The declared query space keeps Hibernate from flushing pending transaction INSERTs before it,
+    // so batched inserts are not broken up row by row.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "monthly_category_rollups"))
+    @Query(value = """
+            INSERT INTO monthly_category_rollups
+                (user_id, category_id, type, month_start, total_amount, transaction_count)
+            VALUES (:userId, :categoryId, :type, :monthStart, :amount, :count)
+            ON DUPLICATE KEY UPDATE
+                total_amount = total_amount + VALUES(total_amount),
+                transaction_count = transaction_count + VALUES(transaction_count)
+            """, nativeQuery = true)
+    void addDelta(Long userId, Long categoryId, String type, LocalDate monthStart,
+                  BigDecimal amount, long count);
+
+    // A rebuild locks the user row exclusively and rollup writers lock it shared, so buckets are never
+    // deleted and re-summed while a write's upserts for that user are in flight.
+    // Same query space reasoning as addDelta.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockUserForRebuild(Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "SELECT id FROM users WHERE id = :userId LOCK IN SHARE MODE", nativeQuery = true)
+    Long lockUserForRollupWrite(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyCategoryRollup r WHERE r.userId = :userId")
+    void deleteByUserId(Long userId);
+
+    // Recompute every bucket of a user straight from the transactions table
+    @Modifying
+    @Query(value = """
+            INSERT INTO monthly_category_rollups
+                (user_id, category_id, type, month_start, total_amount, transaction_count)
+            SELECT t.user_id, COALESCE(t.category_id, 0), t.type,
+                   DATE_FORMAT(t.date, '%Y-%m-01'), SUM(t.amount), COUNT(*)
+            FROM transactions t
+            WHERE t.user_id = :userId AND t.date IS NOT NULL
+            GROUP BY t.user_id, COALESCE(t.category_id, 0), t.type, DATE_FORMAT(t.date, '%Y-%m-01')
+            """, nativeQuery = true)
+    int insertFromTransactions(Long userId);
+
+    @Query("""
+            SELECT new com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO(
+                r.monthStart, r.type, SUM(r.totalAmount), SUM(r.transactionCount))
+            FROM MonthlyCategoryRollup r
+            WHERE r.userId = :userId AND r.monthStart BETWEEN :fromMonth AND :toMonth
+            GROUP BY r.monthStart, r.type
+            ORDER BY r.monthStart
+            """)
+    List<MonthlyTotalDTO> findMonthlyTotals(Long userId, LocalDate fromMonth, LocalDate toMonth);
+}
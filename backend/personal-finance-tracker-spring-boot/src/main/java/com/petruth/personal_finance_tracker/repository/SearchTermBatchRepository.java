@@ -0,0 +1,13 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+
+import java.util.List;
+
+/**
+ * Multi-row INSERT for transaction_search_terms, so indexing a transaction (or a chunk of them)
+ * costs one statement per few hundred terms instead of one per term.
+ */
+public interface SearchTermBatchRepository {
+    void insertTerms(List<TransactionSearchTerm.Key> terms);
+}
@@ -0,0 +1,49 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+class SearchTermBatchRepositoryImpl implements SearchTermBatchRepository {
+
+    // Rows per statement; three bind parameters each stays well below the placeholder limit
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private final EntityManager entityManager;
+
+    SearchTermBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void insertTerms(List<TransactionSearchTerm.Key> terms) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        // With pooled ids the transaction INSERTs wait for the next flush; the terms reference
+        // those rows (fk_search_terms_transaction), so they have to reach the database first
+        entityManager.flush();
+        for (int from = 0; from < terms.size(); from += ROWS_PER_STATEMENT) {
+            insert(terms.subList(from, Math.min(from + ROWS_PER_STATEMENT, terms.size())));
+        }
+    }
+
+    private void insert(List<TransactionSearchTerm.Key> rows) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO transaction_search_terms (user_id, term, transaction_id) VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (TransactionSearchTerm.Key row : rows) {
+            query.setParameter(position++, row.userId());
+            query.setParameter(position++, row.term());
+            query.setParameter(position++, row.transactionId());
+        }
+        query.executeUpdate();
+    }
+}
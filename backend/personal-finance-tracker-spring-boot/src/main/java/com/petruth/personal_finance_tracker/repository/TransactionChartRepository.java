@@ -0,0 +1,58 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Time-bucketed aggregates evaluated in the database, so only one row per bucket leaves MySQL
+ */
+public interface TransactionChartRepository extends Repository<Transaction, Long> {
+
+    @Query(value = """
+            SELECT DATE_FORMAT(CASE :granularity
+                       WHEN 'DAY'   THEN DATE(t.date)
+                       WHEN 'WEEK'  THEN DATE_SUB(DATE(t.date), INTERVAL WEEKDAY(t.date) DAY)
+                       WHEN 'MONTH' THEN DATE_SUB(DATE(t.date), INTERVAL DAYOFMONTH(t.date) - 1 DAY)
+                       ELSE MAKEDATE(YEAR(t.date), 1)
+                   END, '%Y-%m-%d') AS bucket,
+                   CASE WHEN :byCategory THEN t.category_id END AS categoryId,
+                   MAX(CASE WHEN :byCategory THEN c.name END) AS categoryName,
+                   SUM(t.amount) AS total,
+                   COUNT(*) AS txCount
+            FROM transactions t
+            LEFT JOIN categories c ON c.id = t.category_id
+            WHERE t.user_id = :userId
+              AND t.type = :type
+              AND t.date >= :fromDate
+              AND t.date <= :toDate
+            GROUP BY bucket, categoryId
+            ORDER BY bucket, categoryId
+            """, nativeQuery = true)
+    List<ChartBucketView> aggregateTransactions(Long userId, String type, String granularity,
+                                                boolean byCategory,
+                                                LocalDateTime fromDate, LocalDateTime toDate);
+
+    // Same shape, read from the monthly rollups: cost depends on months x categories, not on row count
+    @Query(value = """
+            SELECT DATE_FORMAT(CASE :granularity
+                       WHEN 'YEAR' THEN MAKEDATE(YEAR(r.month_start), 1)
+                       ELSE r.month_start
+                   END, '%Y-%m-%d') AS bucket,
+                   CASE WHEN :byCategory THEN NULLIF(r.category_id, 0) END AS categoryId,
+                   MAX(CASE WHEN :byCategory THEN c.name END) AS categoryName,
+                   SUM(r.total_amount) AS total,
+                   SUM(r.transaction_count) AS txCount
+            FROM monthly_category_rollups r
+            LEFT JOIN categories c ON c.id = r.category_id
+            WHERE r.user_id = :userId
+              AND r.type = :type
+            GROUP BY bucket, categoryId
+            HAVING SUM(r.transaction_count) > 0
+            ORDER BY bucket, categoryId
+            """, nativeQuery = true)
+    List<ChartBucketView> aggregateRollups(Long userId, String type, String granularity, boolean byCategory);
+}
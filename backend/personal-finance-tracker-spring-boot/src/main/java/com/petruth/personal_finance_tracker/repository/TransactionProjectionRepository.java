@@ -0,0 +1,24 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Specification-driven reads that select only the TransactionDTO columns.
+ * No Transaction, User or Category entity is materialized or attached to the persistence context.
+ */
+public interface TransactionProjectionRepository {
+    List<TransactionDTO> findDtos(Specification<Transaction> spec, Sort sort);
+    List<TransactionDTO> findDtos(Specification<Transaction> spec, Sort sort, int limit);
+    Page<TransactionDTO> findDtos(Specification<Transaction> spec, Pageable pageable);
+
+    // Forward-only; must be consumed and closed inside a transaction
+    Stream<TransactionDTO> streamDtos(Specification<Transaction> spec, Sort sort);
+}
@@ -0,0 +1,122 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.entity.Category;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+class TransactionProjectionRepositoryImpl implements TransactionProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    TransactionProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TransactionDTO> findDtos(Specification<Transaction> spec, Sort sort) {
+        return toDtos(createQuery(spec, sort).getResultList());
+    }
+
+    @Override
+    public List<TransactionDTO> findDtos(Specification<Transaction> spec, Sort sort, int limit) {
+        return toDtos(createQuery(spec, sort).setMaxResults(limit).getResultList());
+    }
+
+    @Override
+    public Page<TransactionDTO> findDtos(Specification<Transaction> spec, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        // The count only runs when the page size alone cannot tell the total
+        return PageableExecutionUtils.getPage(toDtos(query.getResultList()), pageable, () -> count(spec));
+    }
+
+    @Override
+    public Stream<TransactionDTO> streamDtos(Specification<Transaction> spec, Sort sort) {
+        // Integer.MIN_VALUE makes Connector/J stream rows one by one instead of buffering the whole result set
+        return createQuery(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .getResultStream()
+                .map(this::toDto);
+    }
+
+    private TypedQuery<Tuple> createQuery(Specification<Transaction> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Transaction> root = query.from(Transaction.class);
+
+        // user.id resolves to the FK column; category name comes from the same statement
+        Join<Transaction, Category> category = root.join("category", JoinType.LEFT);
+        query.multiselect(
+                root.get("id"),
+                root.get("amount"),
+                root.get("type"),
+                root.get("description"),
+                root.get("date"),
+                root.get("user").get("id"),
+                category.get("id"),
+                category.get("name")
+        );
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Transaction> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.select(cb.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<TransactionDTO> toDtos(List<Tuple> rows) {
+        return rows.stream().map(this::toDto).toList();
+    }
+
+    private TransactionDTO toDto(Tuple row) {
+        Transaction.TransactionType type = row.get(2, Transaction.TransactionType.class);
+        return new TransactionDTO(
+                row.get(0, Long.class),
+                row.get(1, BigDecimal.class),
+                type != null ? type.toString() : null,
+                row.get(3, String.class),
+                row.get(4, LocalDateTime.class),
+                row.get(5, Long.class),
+                row.get(6, Long.class),
+                row.get(7, String.class)
+        );
+    }
+}
@@ -1,33 +1,51 @@
 package com.petruth.personal_finance_tracker.repository;
 
-import com.petruth.personal_finance_tracker.entity.Category;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @CrossOrigin("http://localhost:4200")
-public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>,
+        TransactionProjectionRepository {
     List<Transaction> findByUserIdOrderByDateDesc(int id);
     List<Transaction> findByUserIdAndTypeOrderByDate(int id, Transaction.TransactionType type);
     long countByUserId(Long userId);
 
     boolean existsByAmountHashAndUser(String hash, User user);
 
-    // ✅ New method: Find user's transactions by category and date range
-    List<Transaction> findByUserIdAndCategoryAndDateBetween(
-            Long userId,
-            Category category,
-            LocalDateTime startDate,
-            LocalDateTime endDate
-    );
+    // Reads the row as stored, without flushing pending changes of a managed copy first
+    @Query("""
+            SELECT new com.petruth.personal_finance_tracker.dto.TransactionSnapshot(
+                t.id, t.user.id, c.id, t.type, t.amount, t.date)
+            FROM Transaction t LEFT JOIN t.category c
+            WHERE t.id = :id
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<TransactionSnapshot> findSnapshotById(Long id);
+
+    // Income minus expenses in [from, to); served by idx_transactions_user_date
+    @Query("""
+            SELECT COALESCE(SUM(CASE WHEN t.type = com.petruth.personal_finance_tracker.entity.Transaction.TransactionType.INCOME
+                                     THEN t.amount ELSE -t.amount END), 0)
+            FROM Transaction t
+            WHERE t.user.id = :userId AND t.date >= :from AND t.date < :to
+            """)
+    BigDecimal sumNetAmount(Long userId, LocalDateTime from, LocalDateTime to);
 
     // Add paginated version
     Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
@@ -0,0 +1,22 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface TransactionSearchTermRepository
+        extends JpaRepository<TransactionSearchTerm, TransactionSearchTerm.Key>, SearchTermBatchRepository {
+
+    @Modifying
+    @Query("DELETE FROM TransactionSearchTerm s WHERE s.transactionId IN :transactionIds")
+    void deleteByTransactionIdIn(Collection<Long> transactionIds);
+
+    @Modifying
+    @Query("DELETE FROM TransactionSearchTerm s WHERE s.userId = :userId")
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,33 @@
+package com.petruth.personal_finance_tracker.repository;
+
+import com.petruth.personal_finance_tracker.entity.UserDataVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+
+    // Atomic upsert in the writer's transaction. The query space keeps Hibernate from flushing
+    // pending transaction INSERTs before it, like the rollup upserts.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_data_versions"))
+    @Query(value = """
+            INSERT INTO user_data_versions (user_id, version) VALUES (:userId, 1)
+            ON DUPLICATE KEY UPDATE version = version + 1
+            """, nativeQuery = true)
+    void increment(Long userId);
+
+    // The user's own writes plus the shared row 0; both only grow, so the sum changes with either
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_data_versions"))
+    @Query(value = """
+            SELECT CAST(COALESCE(SUM(version), 0) AS SIGNED)
+            FROM user_data_versions
+            WHERE user_id IN (0, :userId)
+            """, nativeQuery = true)
+    long currentVersion(Long userId);
+}
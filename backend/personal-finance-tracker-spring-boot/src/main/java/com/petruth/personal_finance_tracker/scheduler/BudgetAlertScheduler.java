@@ -1,33 +1,80 @@
 package com.petruth.personal_finance_tracker.scheduler;
 
-import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
-import com.petruth.personal_finance_tracker.entity.User;
-import com.petruth.personal_finance_tracker.repository.UserRepository;
-import com.petruth.personal_finance_tracker.service.BudgetService;
-import com.petruth.personal_finance_tracker.service.EmailService;
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.service.BudgetAlertService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Daily safety net for budget alerts. Budgets are normally evaluated right after the write that
+ * changed them (BudgetAlertListener); this run picks up whatever is still dirty (evaluation failed,
+ * instance restarted before it ran, budget started today), in id-ordered pages, in parallel on
+ * budgetAlertExecutor. A page's budgets are grouped by user and each user's are evaluated together,
+ * so their alerts share one digest mail, queued with the evaluation; nothing is held past the page.
+ */
 @Component
 public class BudgetAlertScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(BudgetAlertScheduler.class);
 
-    private final BudgetService budgetService;
-    private final UserRepository userRepository;
-    private final EmailService emailService;
-
-    public BudgetAlertScheduler(BudgetService budgetService,
-                                UserRepository userRepository,
-                                EmailService emailService) {
-        this.budgetService = budgetService;
-        this.userRepository = userRepository;
-        this.emailService = emailService;
+    private final BudgetAlertService budgetAlertService;
+    private final BudgetRepository budgetRepository;
+    private final Executor budgetAlertExecutor;
+    private final int pageSize;
+
+    // Cron and manual trigger must not overlap, or users would get their alerts twice
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Budgets evaluated so far in the current (or last) run
+    private final AtomicLong progress = new AtomicLong();
+    // Alerts queued by the current (or last) run
+    private final AtomicLong queued = new AtomicLong();
+
+    private final Timer runTimer;
+    private final Counter budgetsChecked;
+    private final Counter evaluationFailures;
+
+    public BudgetAlertScheduler(BudgetAlertService budgetAlertService,
+                                BudgetRepository budgetRepository,
+                                @Qualifier("budgetAlertExecutor") Executor budgetAlertExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.budget-alerts.page-size:500}") int pageSize) {
+        this.budgetAlertService = budgetAlertService;
+        this.budgetRepository = budgetRepository;
+        this.budgetAlertExecutor = budgetAlertExecutor;
+        this.pageSize = pageSize;
+
+        this.runTimer = Timer.builder("budget.alerts.run")
+                .description("Duration of a full budget alert run")
+                .register(meterRegistry);
+        this.budgetsChecked = Counter.builder("budget.alerts.budgets")
+                .tag("outcome", "checked")
+                .register(meterRegistry);
+        this.evaluationFailures = Counter.builder("budget.alerts.budgets")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        Gauge.builder("budget.alerts.run.progress", progress, AtomicLong::get)
+                .description("Budgets evaluated in the current budget alert run")
+                .register(meterRegistry);
     }
 
     /**
@@ -36,72 +83,65 @@ public class BudgetAlertScheduler {
      */
     @Scheduled(cron = "0 0 8 * * *")
     public void checkBudgetAlerts() {
-        logger.info("🔔 Starting budget alert check at {}", LocalDate.now());
-
-        // Get all users with verified email
-        List<User> verifiedUsers = userRepository.findByEmailVerifiedTrue();
-        logger.info("📧 Found {} users with verified emails", verifiedUsers.size());
-
-        int alertsSent = 0;
-
-        for (User user : verifiedUsers) {
-            try {
-                alertsSent += checkUserBudgets(user);
-            } catch (Exception e) {
-                logger.error("❌ Failed to check budgets for user {}: {}",
-                        user.getUsername(), e.getMessage());
-            }
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("⏭️ Budget alert check already running, skipping");
+            return;
         }
 
-        logger.info("✅ Budget alert check completed. Sent {} alerts", alertsSent);
+        try {
+            runTimer.record(this::checkDirtyBudgets);
+        } finally {
+            running.set(false);
+        }
     }
 
-    /**
-     * Check all budgets for a specific user
-     */
-    private int checkUserBudgets(User user) {
-        List<BudgetWithSpending> budgets = budgetService.getAllBudgetsWithSpending(user.getId());
-        int alertsSent = 0;
-
-        for (BudgetWithSpending budget : budgets) {
-            // Only check active budgets (within date range)
-            LocalDate now = LocalDate.now();
-            if (now.isBefore(budget.startDate()) || now.isAfter(budget.endDate())) {
-                continue; // Skip inactive budgets
+    private void checkDirtyBudgets() {
+        logger.info("🔔 Starting budget alert check at {}", LocalDate.now());
+        progress.set(0);
+        queued.set(0);
+        LocalDate today = LocalDate.now();
+
+        long afterId = 0;
+        List<Budget> page;
+        do {
+            page = budgetRepository.findAlertDirtyAfter(afterId, today, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
             }
 
-            // Check if alert should be sent
-            if (budget.shouldSendAlert()) {
-                sendBudgetAlert(user, budget);
-                alertsSent++;
+            // A user whose budgets straddle two pages gets one mail per page
+            Map<Long, List<Budget>> budgetsByUser = new LinkedHashMap<>();
+            for (Budget budget : page) {
+                budgetsByUser.computeIfAbsent(budget.getUser().getId(), id -> new ArrayList<>()).add(budget);
             }
-        }
 
-        return alertsSent;
+            // The next page is read once this one is done, so at most one page of budgets is held
+            CompletableFuture.allOf(budgetsByUser.values().stream()
+                    .map(budgets -> CompletableFuture.runAsync(() -> checkUserBudgets(budgets), budgetAlertExecutor))
+                    .toArray(CompletableFuture[]::new)).join();
+
+            afterId = page.get(page.size() - 1).getId();
+            logger.info("📧 Checked {} changed budgets so far", progress.get());
+        } while (page.size() == pageSize);
+
+        logger.info("✅ Budget alert check completed. Checked {} changed budgets, queued {} alerts",
+                progress.get(), queued.get());
     }
 
     /**
-     * Send budget alert email
+     * Evaluate one user's budgets of the page; the alerts for levels that went up are queued
+     * in the same transaction
      */
-    private void sendBudgetAlert(User user, BudgetWithSpending budget) {
+    private void checkUserBudgets(List<Budget> budgets) {
         try {
-            emailService.sendBudgetAlert(
-                    user.getEmail(),
-                    user.getUsername(),
-                    budget.categoryName(),
-                    budget.spent().doubleValue(),
-                    budget.budgetAmount().doubleValue(),
-                    budget.percentage(),
-                    budget.getAlertType()
-            );
-
-            logger.info("📧 Sent {} alert to {} for category: {} ({}%)",
-                    budget.getAlertType(), user.getUsername(),
-                    budget.categoryName(), "%.1f".formatted(budget.percentage()));
-
+            queued.addAndGet(budgetAlertService.evaluate(budgets).size());
+            budgetsChecked.increment(budgets.size());
         } catch (Exception e) {
-            logger.error("❌ Failed to send budget alert to {}: {}",
-                    user.getEmail(), e.getMessage());
+            evaluationFailures.increment(budgets.size());
+            logger.error("❌ Failed to check budgets of user {}: {}",
+                    budgets.get(0).getUser().getId(), e.getMessage());
+        } finally {
+            progress.addAndGet(budgets.size());
         }
     }
 
@@ -112,4 +152,4 @@ public class BudgetAlertScheduler {
         logger.info("🔔 Manual budget alert check triggered");
         checkBudgetAlerts();
     }
-}
\ No newline at end of file
+}
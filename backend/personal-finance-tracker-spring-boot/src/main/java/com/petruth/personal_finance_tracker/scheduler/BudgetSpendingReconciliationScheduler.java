@@ -0,0 +1,52 @@
+package com.petruth.personal_finance_tracker.scheduler;
+
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.BudgetSpendingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class BudgetSpendingReconciliationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetSpendingReconciliationScheduler.class);
+
+    private final BudgetSpendingService budgetSpendingService;
+    private final UserRepository userRepository;
+
+    public BudgetSpendingReconciliationScheduler(BudgetSpendingService budgetSpendingService,
+                                                 UserRepository userRepository) {
+        this.budgetSpendingService = budgetSpendingService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Run every day at 3 AM to repair budget counters that drifted from the transactions
+     * (writes outside the services, manual fixes in the database)
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void reconcileAll() {
+        logger.info("Starting budget spending reconciliation");
+
+        List<Long> userIds = userRepository.findAllIds();
+        int repaired = 0;
+
+        // One transaction per user keeps lock time small
+        for (Long userId : userIds) {
+            try {
+                int drifted = budgetSpendingService.reconcileUser(userId);
+                if (drifted > 0) {
+                    logger.warn("Repaired {} drifted budget counters for user {}", drifted, userId);
+                }
+                repaired += drifted;
+            } catch (Exception e) {
+                logger.error("Failed to reconcile budget counters for user {}: {}", userId, e.getMessage());
+            }
+        }
+
+        logger.info("Budget spending reconciliation completed: {} users, {} counters repaired", userIds.size(), repaired);
+    }
+}
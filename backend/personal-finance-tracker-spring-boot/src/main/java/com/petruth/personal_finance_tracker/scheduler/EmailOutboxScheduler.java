@@ -0,0 +1,44 @@
+package com.petruth.personal_finance_tracker.scheduler;
+
+import com.petruth.personal_finance_tracker.service.EmailOutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EmailOutboxScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxScheduler.class);
+
+    private final EmailOutboxService emailOutboxService;
+
+    public EmailOutboxScheduler(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    /**
+     * Drain everything that is due, one batch (one SMTP connection) at a time.
+     * Messages that fail are leased into the future, so the loop always ends.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:5s}")
+    public void dispatch() {
+        try {
+            int claimed;
+            do {
+                claimed = emailOutboxService.dispatchBatch();
+            } while (claimed > 0);
+        } catch (Exception e) {
+            logger.error("❌ Email outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run every day at 3:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeSent() {
+        int deleted = emailOutboxService.purgeSent();
+        logger.info("Purged {} sent emails from the outbox", deleted);
+    }
+}
@@ -0,0 +1,57 @@
+package com.petruth.personal_finance_tracker.scheduler;
+
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.SearchIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class SearchIndexScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexScheduler.class);
+
+    private final SearchIndexService searchIndexService;
+    private final UserRepository userRepository;
+
+    @Value("${app.search.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public SearchIndexScheduler(SearchIndexService searchIndexService,
+                                UserRepository userRepository) {
+        this.searchIndexService = searchIndexService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Re-index after changing the tokenizer; rows written before the index existed are backfilled by V3_1
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    public void rebuildAll() {
+        logger.info("Starting full rebuild of the transaction search index");
+
+        List<Long> userIds = userRepository.findAllIds();
+        int terms = 0;
+
+        for (Long userId : userIds) {
+            try {
+                terms += searchIndexService.rebuildForUser(userId);
+            } catch (Exception e) {
+                logger.error("Failed to rebuild search index for user {}: {}", userId, e.getMessage());
+            }
+        }
+
+        logger.info("Search index rebuild completed: {} users, {} terms", userIds.size(), terms);
+    }
+}
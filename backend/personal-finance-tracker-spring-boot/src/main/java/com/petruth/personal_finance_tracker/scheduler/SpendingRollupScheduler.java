@@ -0,0 +1,63 @@
+package com.petruth.personal_finance_tracker.scheduler;
+
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.SpendingRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class SpendingRollupScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpendingRollupScheduler.class);
+
+    private final SpendingRollupService spendingRollupService;
+    private final UserRepository userRepository;
+
+    @Value("${app.rollups.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public SpendingRollupScheduler(SpendingRollupService spendingRollupService,
+                                   UserRepository userRepository) {
+        this.spendingRollupService = spendingRollupService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * On-demand full rebuild; the initial backfill is done by the V2 migration
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Run every Sunday at 4 AM to repair any drift from writes outside the services
+     */
+    @Scheduled(cron = "0 0 4 * * SUN")
+    public void rebuildAll() {
+        logger.info("Starting full rebuild of monthly spending rollups");
+
+        List<Long> userIds = userRepository.findAllIds();
+        int buckets = 0;
+
+        // One transaction per user keeps lock time and undo log small
+        for (Long userId : userIds) {
+            try {
+                buckets += spendingRollupService.rebuildForUser(userId);
+            } catch (Exception e) {
+                logger.error("Failed to rebuild rollups for user {}: {}", userId, e.getMessage());
+            }
+        }
+
+        logger.info("Rollup rebuild completed: {} users, {} buckets", userIds.size(), buckets);
+    }
+}
@@ -1,6 +1,7 @@
 package com.petruth.personal_finance_tracker.security;
 
 import com.petruth.personal_finance_tracker.service.MyUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -50,6 +51,9 @@ public class SecurityConfiguration {
 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async re-dispatch of streaming responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers(
                                 "/api/auth/login",
@@ -59,7 +63,8 @@ public class SecurityConfiguration {
                                 "/api/email/verify",
                                 "/api/email/resend",
                                 "/swagger-ui/**",
-                                "/v3/api-docs/**"
+                                "/v3/api-docs/**",
+                                "/actuator/health"
                         ).permitAll()
 
                         // Protected endpoints - require authentication
@@ -68,6 +73,8 @@ public class SecurityConfiguration {
                         .requestMatchers("/api/budgets/**").authenticated()
                         .requestMatchers("/api/categories/**").authenticated()
                         .requestMatchers("/api/profile/**").authenticated() // Add this line
+                        // Metrics and cache management span every user's data
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // All other requests require authentication
                         .anyRequest().authenticated()
@@ -166,13 +173,15 @@ public class SecurityConfiguration {
                 "Content-Type",
                 "X-Requested-With",
                 "Accept",
-                "Origin"
+                "Origin",
+                "If-None-Match"
         ));
 
         // Expose headers to client
         configuration.setExposedHeaders(Arrays.asList(
                 "X-Rate-Limit-Remaining",
-                "X-Rate-Limit-Retry-After-Seconds"
+                "X-Rate-Limit-Retry-After-Seconds",
+                "ETag"
         ));
 
         // Allow credentials (cookies, authorization headers)
@@ -5,6 +5,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 public class SecurityUtil {
 
@@ -25,6 +27,15 @@ public class SecurityUtil {
         throw new SecurityException("No authenticated user found");
     }
 
+    // Non-throwing variant for code that also runs outside a request (schedulers, datasource routing)
+    public Optional<Long> findCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof Claims claims) {
+            return Optional.ofNullable(claims.get("userId", Long.class));
+        }
+        return Optional.empty();
+    }
+
     public boolean isCurrentUser(Long userId) {
         try {
             return getCurrentUserId().equals(userId);
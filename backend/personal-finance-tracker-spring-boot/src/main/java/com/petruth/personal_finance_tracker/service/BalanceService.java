@@ -0,0 +1,17 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.BalancePointDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface BalanceService {
+    BalancePointDTO getBalanceAt(Long userId, LocalDate date);
+    // Closing balance of every month in the range, oldest first
+    List<BalancePointDTO> getMonthlyBalances(Long userId, YearMonth fromMonth, YearMonth toMonth);
+    // Called from transaction writes, inside their transaction, with the earliest date they touched
+    void invalidateFrom(Long userId, LocalDateTime earliestDate);
+    void invalidateAll(Long userId);
+}
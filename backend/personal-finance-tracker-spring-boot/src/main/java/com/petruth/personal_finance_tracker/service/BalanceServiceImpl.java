@@ -0,0 +1,197 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.BalancePointDTO;
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.entity.BalanceCheckpoint;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
+import com.petruth.personal_finance_tracker.repository.BalanceCheckpointRepository;
+import com.petruth.personal_finance_tracker.repository.MonthlyCategoryRollupRepository;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Balance at a date = nearest monthly checkpoint at or before it + the transactions since,
+ * so no read scans more than about a month of rows.
+ *
+ * Checkpoints are only stored up to the start of yesterday's month. Writes dated later than the
+ * start of the current month therefore never invalidate anything, and only back-dated writes pay
+ * for a delete. Missing checkpoints are filled in from the monthly rollups on the next read, which
+ * is only correct because the rollups are backfilled (V2) before any checkpoint can be built.
+ */
+@Service
+public class BalanceServiceImpl implements BalanceService {
+
+    // Rollup scan start for a user without any checkpoint yet
+    private static final LocalDate FIRST_MONTH = LocalDate.of(1970, 1, 1);
+    private static final int MAX_MONTHS = 120;
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final MonthlyCategoryRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate buildTransaction;
+
+    public BalanceServiceImpl(BalanceCheckpointRepository checkpointRepository,
+                              MonthlyCategoryRollupRepository rollupRepository,
+                              TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.checkpointRepository = checkpointRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.buildTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public BalancePointDTO getBalanceAt(Long userId, LocalDate date) {
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        LocalDate month = earliest(monthStart(end.toLocalDate()), lastStoredMonth());
+
+        BigDecimal balance = checkpoint(userId, month)
+                .add(transactionRepository.sumNetAmount(userId, month.atStartOfDay(), end));
+        return new BalancePointDTO(date, balance);
+    }
+
+    @Override
+    public List<BalancePointDTO> getMonthlyBalances(Long userId, YearMonth fromMonth, YearMonth toMonth) {
+        if (fromMonth.isAfter(toMonth)) {
+            throw new InvalidRequestException("fromMonth must not be after toMonth");
+        }
+        if (ChronoUnit.MONTHS.between(fromMonth, toMonth) >= MAX_MONTHS) {
+            throw new InvalidRequestException("At most " + MAX_MONTHS + " months can be requested");
+        }
+
+        // A month's closing balance is the checkpoint at the start of the next month
+        LocalDate firstOpening = fromMonth.plusMonths(1).atDay(1);
+        LocalDate lastOpening = toMonth.plusMonths(1).atDay(1);
+        LocalDate lastStored = earliest(lastOpening, lastStoredMonth());
+
+        // Builds any missing checkpoints up to lastStored, then reads the range in one query
+        BigDecimal lastStoredBalance = checkpoint(userId, lastStored);
+        Map<LocalDate, BigDecimal> stored = new HashMap<>();
+        if (!firstOpening.isAfter(lastStored)) {
+            checkpointRepository.findByUserIdAndMonthStartBetweenOrderByMonthStart(userId, firstOpening, lastStored)
+                    .forEach(c -> stored.put(c.getMonthStart(), c.getBalance()));
+        }
+
+        List<BalancePointDTO> points = new ArrayList<>();
+        for (YearMonth month = fromMonth; !month.isAfter(toMonth); month = month.plusMonths(1)) {
+            LocalDate opening = month.plusMonths(1).atDay(1);
+            BigDecimal balance;
+            if (!opening.isAfter(lastStored)) {
+                BigDecimal known = stored.get(opening);
+                balance = known != null ? known : checkpoint(userId, opening);
+            } else {
+                // Current (or future) month: latest checkpoint plus the rows since
+                balance = lastStoredBalance.add(transactionRepository.sumNetAmount(
+                        userId, lastStored.atStartOfDay(), opening.atStartOfDay()));
+            }
+            points.add(new BalancePointDTO(month.atEndOfMonth(), balance));
+        }
+        return points;
+    }
+
+    /**
+     * Runs inside the writer's transaction. The shared lock waits for a checkpoint build in progress,
+     * so the delete also removes anything it stored from the rollups as they were before this write.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invalidateFrom(Long userId, LocalDateTime earliestDate) {
+        if (earliestDate == null || !earliestDate.toLocalDate().isBefore(monthStart(LocalDate.now()))) {
+            return;
+        }
+        checkpointRepository.lockUserForCheckpointInvalidation(userId);
+        checkpointRepository.deleteAfter(userId, earliestDate.toLocalDate());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invalidateAll(Long userId) {
+        checkpointRepository.lockUserForCheckpointInvalidation(userId);
+        checkpointRepository.deleteByUserId(userId);
+    }
+
+    private BigDecimal checkpoint(Long userId, LocalDate month) {
+        return checkpointRepository.findById(new BalanceCheckpoint.Key(userId, month))
+                .map(BalanceCheckpoint::getBalance)
+                .orElseGet(() -> buildCheckpoints(userId, month));
+    }
+
+    // Stores every missing checkpoint from the latest existing one up to month, and returns month's
+    private BigDecimal buildCheckpoints(Long userId, LocalDate month) {
+        return buildTransaction.execute(status -> {
+            // Must be the first statement: it waits for in-flight back-dated writes, and the
+            // snapshot the reads below use is only taken once it is granted
+            checkpointRepository.lockUserForCheckpointBuild(userId);
+
+            Optional<BalanceCheckpoint> latest = checkpointRepository
+                    .findFirstByUserIdAndMonthStartLessThanEqualOrderByMonthStartDesc(userId, month);
+            BigDecimal balance = latest.map(BalanceCheckpoint::getBalance).orElse(BigDecimal.ZERO);
+            LocalDate from = latest.map(BalanceCheckpoint::getMonthStart).orElse(FIRST_MONTH);
+            if (!from.isBefore(month)) {
+                if (latest.isEmpty()) {
+                    checkpointRepository.insertCheckpoint(userId, month, balance);
+                }
+                return balance;
+            }
+
+            TreeMap<LocalDate, BigDecimal> net = monthlyNet(userId, from, month.minusMonths(1));
+            if (latest.isEmpty()) {
+                // Nothing before the first month with activity: start there at zero
+                from = net.isEmpty() ? month : earliest(net.firstKey(), month);
+                if (from.equals(month)) {
+                    checkpointRepository.insertCheckpoint(userId, month, balance);
+                    return balance;
+                }
+            }
+
+            for (LocalDate m = from; m.isBefore(month); m = m.plusMonths(1)) {
+                balance = balance.add(net.getOrDefault(m, BigDecimal.ZERO));
+                checkpointRepository.insertCheckpoint(userId, m.plusMonths(1), balance);
+            }
+            return balance;
+        });
+    }
+
+    // Income minus expenses per month, from the rollups
+    private TreeMap<LocalDate, BigDecimal> monthlyNet(Long userId, LocalDate fromMonth, LocalDate toMonth) {
+        TreeMap<LocalDate, BigDecimal> net = new TreeMap<>();
+        for (MonthlyTotalDTO total : rollupRepository.findMonthlyTotals(userId, fromMonth, toMonth)) {
+            BigDecimal signed = total.type() == Transaction.TransactionType.INCOME
+                    ? total.total()
+                    : total.total().negate();
+            net.merge(total.month(), signed, BigDecimal::add);
+        }
+        return net;
+    }
+
+    // Latest month start a checkpoint may be stored for. One day behind "now", so a write that
+    // decided it was not back-dated just before midnight on the last day of a month is still covered.
+    private static LocalDate lastStoredMonth() {
+        return monthStart(LocalDate.now().minusDays(1));
+    }
+
+    private static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
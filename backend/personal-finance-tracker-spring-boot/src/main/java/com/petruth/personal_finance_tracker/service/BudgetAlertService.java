@@ -0,0 +1,12 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.entity.Budget;
+
+import java.util.List;
+
+public interface BudgetAlertService {
+    // Records the current alert level of one user's budgets (freshly loaded, with user and category)
+    // and, in the same transaction, queues the mail for those whose level went up; returns those alerts
+    List<BudgetWithSpending> evaluate(List<Budget> budgets);
+}
@@ -0,0 +1,100 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alerts on level transitions only: a budget that was already reported as WARNING is not mailed
+ * again until it goes OVER_BUDGET. A drop (refund, raised amount) is recorded silently, so a later
+ * rise alerts again.
+ *
+ * The mail goes into the outbox in the transaction that records the new level, so a level is never
+ * recorded without its mail. In digest mode a user with several raised budgets gets one mail listing them all.
+ */
+@Service
+public class BudgetAlertServiceImpl implements BudgetAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetAlertServiceImpl.class);
+
+    private final BudgetService budgetService;
+    private final BudgetRepository budgetRepository;
+    private final EmailService emailService;
+    private final boolean digest;
+    private final Counter alertsQueued;
+
+    public BudgetAlertServiceImpl(BudgetService budgetService,
+                                  BudgetRepository budgetRepository,
+                                  EmailService emailService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.budget-alerts.digest:true}") boolean digest) {
+        this.budgetService = budgetService;
+        this.budgetRepository = budgetRepository;
+        this.emailService = emailService;
+        this.digest = digest;
+        this.alertsQueued = Counter.builder("budget.alerts.sent")
+                .description("Budget alerts queued for mailing")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public List<BudgetWithSpending> evaluate(List<Budget> budgets) {
+        List<BudgetWithSpending> raised = new ArrayList<>();
+        for (Budget budget : budgets) {
+            BudgetWithSpending status = budgetService.calculateBudgetWithSpending(budget);
+            Budget.AlertLevel previous = budget.getLastAlertLevel();
+            Budget.AlertLevel current = Budget.AlertLevel.valueOf(status.getAlertType());
+            boolean up = current.compareTo(previous) > 0;
+
+            // Losing the race means another evaluation (or a newer write) got there first; the budget is
+            // then either already recorded or still dirty, and nothing is sent from here
+            int recorded = budgetRepository.recordAlertEvaluation(budget.getId(), previous.name(),
+                    budget.getSpentAmount(), current.name(), up ? LocalDateTime.now() : null);
+            if (recorded == 1 && up) {
+                raised.add(status);
+            }
+        }
+
+        if (!raised.isEmpty()) {
+            queueMail(budgets.get(0).getUser(), raised);
+        }
+        return raised;
+    }
+
+    // A failure here rolls the recorded levels back, so the budgets stay dirty and are retried
+    private void queueMail(User user, List<BudgetWithSpending> alerts) {
+        if (digest && alerts.size() > 1) {
+            emailService.sendBudgetAlertDigest(user.getEmail(), user.getUsername(), alerts);
+            logger.info("📧 Queued alert digest to {} for {} budgets", user.getUsername(), alerts.size());
+        } else {
+            for (BudgetWithSpending alert : alerts) {
+                emailService.sendBudgetAlert(
+                        user.getEmail(),
+                        user.getUsername(),
+                        alert.categoryName(),
+                        alert.spent().doubleValue(),
+                        alert.budgetAmount().doubleValue(),
+                        alert.percentage(),
+                        alert.getAlertType()
+                );
+                logger.info("📧 Queued {} alert to {} for category: {} ({}%)",
+                        alert.getAlertType(), user.getUsername(),
+                        alert.categoryName(), "%.1f".formatted(alert.percentage()));
+            }
+        }
+        alertsQueued.increment(alerts.size());
+    }
+}
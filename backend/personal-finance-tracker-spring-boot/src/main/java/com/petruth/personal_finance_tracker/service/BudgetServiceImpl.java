@@ -1,14 +1,13 @@
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
 import com.petruth.personal_finance_tracker.dto.BudgetDTO;
 import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
 import com.petruth.personal_finance_tracker.entity.Budget;
 import com.petruth.personal_finance_tracker.entity.Category;
-import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
 import com.petruth.personal_finance_tracker.repository.BudgetRepository;
 import com.petruth.personal_finance_tracker.repository.CategoryRepository;
-import com.petruth.personal_finance_tracker.repository.TransactionRepository;
 import com.petruth.personal_finance_tracker.repository.UserRepository;
 import com.petruth.personal_finance_tracker.utils.BudgetMapper;
 import org.springframework.cache.annotation.CacheConfig;
@@ -27,24 +26,28 @@ import java.util.stream.Collectors;
 @CacheConfig(cacheNames = "budgets")
 public class BudgetServiceImpl implements BudgetService{
 
+    private static final String CACHE_NAME = "budgets";
+
     private final BudgetRepository budgetRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final TransactionRepository transactionRepository;
+    private final BudgetSpendingService budgetSpendingService;
     private final BudgetMapper budgetMapper;
+    private final UserCacheGenerations userCacheGenerations;
 
     public BudgetServiceImpl(BudgetRepository budgetRepository, UserRepository userRepository,
-                             CategoryRepository categoryRepository, TransactionRepository transactionRepository,
-                             BudgetMapper budgetMapper) {
+                             CategoryRepository categoryRepository, BudgetSpendingService budgetSpendingService,
+                             BudgetMapper budgetMapper, UserCacheGenerations userCacheGenerations) {
         this.budgetRepository = budgetRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
-        this.transactionRepository = transactionRepository;
+        this.budgetSpendingService = budgetSpendingService;
         this.budgetMapper = budgetMapper;
+        this.userCacheGenerations = userCacheGenerations;
     }
 
     @Override
-    @CacheEvict(allEntries = true)
+    @Transactional
     public BudgetDTO createBudget(BudgetDTO budgetDTO) {
         User user = userRepository.findById(budgetDTO.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -52,11 +55,17 @@ public class BudgetServiceImpl implements BudgetService{
                 .orElseThrow(() -> new RuntimeException("Category not found"));
 
         Budget budget = budgetMapper.toBudgetEntity(budgetDTO, user, category);
-        return budgetMapper.toBudgetDTO(budgetRepository.save(budget));
+        BudgetDTO saved = budgetMapper.toBudgetDTO(budgetRepository.save(budget));
+        // Counts the expenses already in the period
+        budgetSpendingService.recompute(budget.getId());
+
+        userCacheGenerations.bump(CACHE_NAME, user.getId());
+        return saved;
     }
 
     @Override
-    @Cacheable(key = "'user-' + #userId + '-budgets'")
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'user-' + #userId + '-' + @userCacheGenerations.current('budgets', #userId) + '-budgets'")
     public List<BudgetDTO> findByUserId(Long userId) {
         return budgetRepository.findByUserId(userId)
                 .stream().map(budgetMapper::toBudgetDTO)
@@ -71,7 +80,8 @@ public class BudgetServiceImpl implements BudgetService{
     }
 
     @Override
-    @CacheEvict(allEntries = true)
+    @Transactional
+    @CacheEvict(key = "'budget-' + #id")
     public BudgetDTO updateBudget(Long id, BudgetDTO budgetDTO) {
         Budget existing = budgetRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
@@ -85,42 +95,56 @@ public class BudgetServiceImpl implements BudgetService{
         existing.setEndDate(budgetDTO.getEndDate());
         existing.setCategory(category);
 
-        return budgetMapper.toBudgetDTO(budgetRepository.save(existing));
+        BudgetDTO saved = budgetMapper.toBudgetDTO(budgetRepository.save(existing));
+        // Native UPDATE: Hibernate flushes the new category and period before it runs
+        budgetSpendingService.recompute(id);
+
+        userCacheGenerations.bump(CACHE_NAME, existing.getUser().getId());
+        return saved;
     }
 
     @Override
-    @CacheEvict(allEntries = true)
+    @CacheEvict(key = "'budget-' + #id")
     public void deleteById(Long id) {
-        budgetRepository.deleteById(id);
+        budgetRepository.findById(id).ifPresent(budget -> {
+            budgetRepository.delete(budget);
+            userCacheGenerations.bump(CACHE_NAME, budget.getUser().getId());
+        });
     }
 
     /**
-     * ✅ Calculate budget with actual spending
+     * ✅ Calculate budget with actual spending.
+     * Reads the live counter, so pass a freshly loaded budget rather than the cached findById copy.
      */
     @Override
-    @Transactional(readOnly = true)
     public BudgetWithSpending calculateBudgetWithSpending(Budget budget) {
-        LocalDate now = LocalDate.now();
-
         // If budget is not active, return with zero spending
-        if (now.isBefore(budget.getStartDate()) || now.isAfter(budget.getEndDate())) {
+        if (!isActive(budget, LocalDate.now())) {
             return createInactiveBudgetStatus(budget);
         }
+        return withSpending(budget, budget.getSpentAmount());
+    }
 
-        // Get all EXPENSE transactions for this category within budget period
-        List<Transaction> transactions = transactionRepository.findByUserIdAndCategoryAndDateBetween(
-                budget.getUser().getId(),
-                budget.getCategory(),
-                budget.getStartDate().atStartOfDay(),
-                budget.getEndDate().atTime(23, 59, 59)
-        );
+    /**
+     * ✅ Get all budgets with spending for a user.
+     * One statement whatever the number of budgets: spending is the counter stored on each budget.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BudgetWithSpending> getAllBudgetsWithSpending(Long userId) {
+        LocalDate today = LocalDate.now();
+        return budgetRepository.findByUserIdWithCategory(userId).stream()
+                .map(budget -> isActive(budget, today)
+                        ? withSpending(budget, budget.getSpentAmount())
+                        : createInactiveBudgetStatus(budget))
+                .collect(Collectors.toList());
+    }
 
-        // Sum up only EXPENSE transactions
-        BigDecimal spent = transactions.stream()
-                .filter(tx -> tx.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private static boolean isActive(Budget budget, LocalDate today) {
+        return !today.isBefore(budget.getStartDate()) && !today.isAfter(budget.getEndDate());
+    }
 
+    private BudgetWithSpending withSpending(Budget budget, BigDecimal spent) {
         // Calculate remaining and percentage
         BigDecimal remaining = budget.getAmount().subtract(spent);
 
@@ -150,19 +174,6 @@ public class BudgetServiceImpl implements BudgetService{
         );
     }
 
-    /**
-     * ✅ Get all budgets with spending for a user
-     */
-    @Override
-    @Transactional(readOnly = true)
-    public List<BudgetWithSpending> getAllBudgetsWithSpending(Long userId) {
-        List<Budget> budgets = budgetRepository.findByUserId(userId);
-
-        return budgets.stream()
-                .map(this::calculateBudgetWithSpending)
-                .collect(Collectors.toList());
-    }
-
     /**
      * Helper: Create inactive budget status (no spending calculation)
      */
@@ -0,0 +1,16 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+
+import java.util.List;
+
+public interface BudgetSpendingService {
+    // before = row as it was (null on insert), after = row as saved (null on delete)
+    void applyChange(TransactionSnapshot before, TransactionSnapshot after);
+    // Batch variant: deltas are summed per budget first, so each touched budget is updated once
+    void applyChanges(List<TransactionSnapshot> before, List<TransactionSnapshot> after);
+    // After a budget is created or its category/period changed
+    void recompute(Long budgetId);
+    // Repairs drifted counters of a user; returns how many were wrong
+    int reconcileUser(Long userId);
+}
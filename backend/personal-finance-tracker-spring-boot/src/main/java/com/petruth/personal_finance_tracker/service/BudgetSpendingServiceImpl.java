@@ -0,0 +1,157 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.event.BudgetSpendingChangedEvent;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.repository.BudgetWindowView;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps budgets.spent_amount equal to the EXPENSE total of the budget's category within its period,
+ * so reading a budget's spending is a column read instead of a SUM over transactions.
+ */
+@Service
+public class BudgetSpendingServiceImpl implements BudgetSpendingService {
+
+    private static final String CACHE_NAME = "budgets";
+
+    private final BudgetRepository budgetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCacheGenerations userCacheGenerations;
+    // Transaction resource key for the budgets touched so far
+    private final Object touchedKey = new Object();
+
+    public BudgetSpendingServiceImpl(BudgetRepository budgetRepository, ApplicationEventPublisher eventPublisher,
+                                     UserCacheGenerations userCacheGenerations) {
+        this.budgetRepository = budgetRepository;
+        this.eventPublisher = eventPublisher;
+        this.userCacheGenerations = userCacheGenerations;
+    }
+
+    /**
+     * Must run inside the caller's transaction, so the counters and the row commit or roll back together
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(TransactionSnapshot before, TransactionSnapshot after) {
+        applyChanges(before != null ? List.of(before) : List.of(), after != null ? List.of(after) : List.of());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChanges(List<TransactionSnapshot> before, List<TransactionSnapshot> after) {
+        // Only expenses with a category and a date can count towards a budget
+        Map<Long, List<SignedAmount>> byUser = new LinkedHashMap<>();
+        for (TransactionSnapshot tx : before) {
+            if (counts(tx)) {
+                byUser.computeIfAbsent(tx.userId(), k -> new ArrayList<>()).add(new SignedAmount(tx, tx.amount().negate()));
+            }
+        }
+        for (TransactionSnapshot tx : after) {
+            if (counts(tx)) {
+                byUser.computeIfAbsent(tx.userId(), k -> new ArrayList<>()).add(new SignedAmount(tx, tx.amount()));
+            }
+        }
+
+        byUser.forEach((userId, amounts) -> {
+            List<BudgetWindowView> windows = budgetRepository.lockWindowsByUserId(userId);
+            if (windows.isEmpty()) {
+                return;
+            }
+
+            Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+            for (BudgetWindowView window : windows) {
+                LocalDateTime start = LocalDate.parse(window.getStartDate()).atStartOfDay();
+                LocalDateTime end = LocalDate.parse(window.getEndDate()).plusDays(1).atStartOfDay();
+                for (SignedAmount amount : amounts) {
+                    TransactionSnapshot tx = amount.transaction();
+                    if (tx.categoryId().equals(window.getCategoryId())
+                            && !tx.date().isBefore(start) && tx.date().isBefore(end)) {
+                        deltas.merge(window.getBudgetId(), amount.amount(), BigDecimal::add);
+                    }
+                }
+            }
+
+            // An edit that keeps the amount inside the same budget nets out to nothing
+            List<Long> touched = new ArrayList<>();
+            deltas.forEach((budgetId, delta) -> {
+                if (delta.signum() != 0) {
+                    budgetRepository.addSpent(budgetId, delta);
+                    touched.add(budgetId);
+                }
+            });
+            recordTouched(touched);
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recompute(Long budgetId) {
+        budgetRepository.recomputeSpent(budgetId);
+        recordTouched(List.of(budgetId));
+    }
+
+    @Override
+    @Transactional
+    public int reconcileUser(Long userId) {
+        int drifted = budgetRepository.reconcileSpentForUser(userId);
+        if (drifted > 0) {
+            // Cached budget views and ETags still carry the drifted totals
+            userCacheGenerations.bump(CACHE_NAME, userId);
+        }
+        return drifted;
+    }
+
+    // Collects touched budgets per database transaction, so an import of a thousand rows is evaluated
+    // once per budget after commit rather than once per row. The event is published on the first touch
+    // (listeners only see it after commit) and later calls add to the set it carries.
+    private void recordTouched(Collection<Long> budgetIds) {
+        if (budgetIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(new BudgetSpendingChangedEvent(new LinkedHashSet<>(budgetIds)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> touched = (Set<Long>) TransactionSynchronizationManager.getResource(touchedKey);
+        if (touched == null) {
+            touched = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(touchedKey, touched);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(touchedKey);
+                }
+            });
+            eventPublisher.publishEvent(new BudgetSpendingChangedEvent(touched));
+        }
+        touched.addAll(budgetIds);
+    }
+
+    private static boolean counts(TransactionSnapshot tx) {
+        return tx.type() == Transaction.TransactionType.EXPENSE && tx.categoryId() != null && tx.date() != null;
+    }
+
+    private record SignedAmount(TransactionSnapshot transaction, BigDecimal amount) {
+    }
+}
@@ -1,17 +1,24 @@
 package com.petruth.personal_finance_tracker.service;
 
 import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
 import com.petruth.personal_finance_tracker.entity.Category;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CategoryService {
     Category findById(Long id);
+    Map<Long, Category> findAllByIds(Collection<Long> ids);
     List<CategoryDTO> findByUserId(Long userId);
     Category saveFromDTO(CategoryDTO dto);
     void deleteById(Long id);
     List<CategoryDTO> getAllCategoriesForUser(Long userId);
     List<CategoryDTO> findByUserIsNull();
-    Category findByName(String name);
+    // Predefined and the user's own categories by name; cached until the user's categories change
+    CategoryDictionary getDictionaryForUser(Long userId);
+    // Reference by id without loading the row, for categories already resolved in memory
+    Category getReference(Long id);
 }
 
@@ -1,38 +1,49 @@
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
 import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
 import com.petruth.personal_finance_tracker.entity.Category;
 import com.petruth.personal_finance_tracker.entity.User;
 import com.petruth.personal_finance_tracker.repository.CategoryRepository;
 import com.petruth.personal_finance_tracker.utils.CategoryMapper;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @CacheConfig(cacheNames = "categories")
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final String CACHE_NAME = "categories";
+
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final UserService userService;
+    private final UserCacheGenerations userCacheGenerations;
 
     public CategoryServiceImpl(CategoryRepository categoryRepository,
                                CategoryMapper categoryMapper,
-                               UserService userService) {
+                               UserService userService,
+                               UserCacheGenerations userCacheGenerations) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
         this.userService = userService;
+        this.userCacheGenerations = userCacheGenerations;
     }
 
-    // Cache data based on the current userId
+    // Cache data per user; the generation changes whenever that user's categories change
     @Override
-    @Cacheable(key = "#userId")
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'user:' + #userId + ':' + @userCacheGenerations.current('categories', #userId)")
     public List<CategoryDTO> getAllCategoriesForUser(Long userId) {
 
         List<Category> predefined = categoryRepository.findByUserIsNull();
@@ -48,6 +59,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryDTO> findByUserIsNull() {
         List<Category> predefined = categoryRepository.findByUserIsNull();
 
@@ -56,9 +68,17 @@ public class CategoryServiceImpl implements CategoryService {
                 .collect(Collectors.toList());
     }
 
+    // Same generation key as the category list, so any category write rebuilds it
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'dictionary:' + #userId + ':' + @userCacheGenerations.current('categories', #userId)")
+    public CategoryDictionary getDictionaryForUser(Long userId) {
+        return CategoryDictionary.of(categoryRepository.findByUserId(userId), categoryRepository.findByUserIsNull());
+    }
+
     @Override
-    public Category findByName(String name) {
-        return categoryRepository.findByName(name);
+    public Category getReference(Long id) {
+        return categoryRepository.getReferenceById(id);
     }
 
     @Override
@@ -67,7 +87,18 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found"));
     }
 
+    // One query for a whole batch; unknown ids are simply absent from the map
     @Override
+    public Map<Long, Category> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<CategoryDTO> findByUserId(Long userId) {
         return categoryRepository.findByUserId(userId)
                 .stream()
@@ -75,19 +106,27 @@ public class CategoryServiceImpl implements CategoryService {
                 .collect(Collectors.toList());
     }
 
-    // Invalidate cache after adding data
+    // Invalidate only the owner's cached categories after adding data
     @Override
-    @CacheEvict(allEntries = true)
     public Category saveFromDTO(CategoryDTO dto) {
         User user = userService.findById(dto.getUserId());
         Category category = categoryMapper.toCategory(dto, user);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+
+        userCacheGenerations.bump(CACHE_NAME, user.getId());
+        return saved;
     }
 
-    // Invalidate cache after removing data
+    // Invalidate cache after removing data; predefined categories are shared by every user
     @Override
-    @CacheEvict(allEntries = true)
     public void deleteById(Long id) {
-        categoryRepository.deleteById(id);
+        categoryRepository.findById(id).ifPresent(category -> {
+            categoryRepository.delete(category);
+            if (category.getUser() != null) {
+                userCacheGenerations.bump(CACHE_NAME, category.getUser().getId());
+            } else {
+                userCacheGenerations.bumpAll(CACHE_NAME);
+            }
+        });
     }
 }
@@ -1,29 +1,36 @@
 // CsvImportService.java
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
 import com.petruth.personal_finance_tracker.entity.Category;
 import com.petruth.personal_finance_tracker.entity.ImportedFile;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
 import com.petruth.personal_finance_tracker.repository.ImportedFileRepository;
+import com.petruth.personal_finance_tracker.utils.AmountScanner;
+import com.petruth.personal_finance_tracker.utils.DateScanner;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class CsvImportService{
@@ -33,54 +40,39 @@ public class CsvImportService{
     private final TransactionService transactionService;
     private final CategoryService categoryService;
     private final ImportedFileRepository importedFileRepository;
+    private final int chunkSize;
 
-    private static final DateTimeFormatter[] DATE_FORMATS = new DateTimeFormatter[]{
-            // date-only (common separators)
-            DateTimeFormatter.ofPattern("d.MM.yyyy"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-            DateTimeFormatter.ofPattern("d/MM/yyyy"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("d-MM-yyyy"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-
-            // date + time (if PDF contains timestamps)
-            DateTimeFormatter.ofPattern("d.MM.yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("d/MM/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("d-MM-yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-
-            // month names in Romanian (e.g. "4 nov. 2025" or "4 nov 2025")
-            DateTimeFormatter.ofPattern("d MMM yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("d MMM. yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("dd MMM. yyyy", Locale.of("ro"))
-    };
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Rows read before the first write to infer the file's date layout and decimal separator
+    private static final int FORMAT_SAMPLE_ROWS = 50;
 
     public CsvImportService(TransactionService transactionService,
                             CategoryService categoryService,
-                                ImportedFileRepository importedFileRepository) {
+                                ImportedFileRepository importedFileRepository,
+                            @Value("${app.import.chunk-size:500}") int chunkSize) {
         this.transactionService = transactionService;
         this.categoryService = categoryService;
         this.importedFileRepository = importedFileRepository;
+        this.chunkSize = chunkSize;
     }
 
     /**
-     * Import transactions from CSV file
+     * Import transactions from CSV file.
+     * Rows are streamed from the upload and written in chunks of app.import.chunk-size, each chunk in
+     * its own database transaction, so memory stays flat whatever the file size. A chunk that fails
+     * to save is reported as failed rows; earlier chunks stay imported.
      */
-    // CsvImportService.java
     public ImportResult importFromCsv(MultipartFile file, User user,
                                       CsvImportConfig config) throws Exception {
 
         ImportedFile importBatch = getImportedFile(file, user, config);
         importBatch = importedFileRepository.save(importBatch);
 
-        List<Transaction> imported = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        int duplicates = 0;
+        ImportErrors errors = new ImportErrors();
+        int importedCount = 0;
+        // Category names resolve in memory, not with a query per row
+        CategoryDictionary categories = categoryService.getDictionaryForUser(user.getId());
 
         try (BufferedReader reader = new BufferedReader(
                 new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
@@ -91,32 +83,71 @@ public class CsvImportService{
                     .withTrim()
                     .parse(reader);
 
+            // Header positions are looked up once, not per row
+            Columns columns = Columns.resolve(csvParser.getHeaderMap(), config);
+
+            // One date layout and one decimal convention per file, picked from the first rows
+            // (if those rows hold only whole amounts, each amount is read by its own separators)
+            Iterator<CSVRecord> records = csvParser.iterator();
+            List<CSVRecord> sample = new ArrayList<>(FORMAT_SAMPLE_ROWS);
+            while (sample.size() < FORMAT_SAMPLE_ROWS && records.hasNext()) {
+                sample.add(records.next());
+            }
+            Formats formats = Formats.infer(sample, columns);
+            Iterator<CSVRecord> rows = Stream.concat(sample.stream(),
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED), false))
+                    .iterator();
+
+            List<Transaction> chunk = new ArrayList<>(chunkSize);
+            int chunkFirstRow = 2;
             int rowNumber = 1;
-            for (CSVRecord record : csvParser) {
+            while (rows.hasNext()) {
+                CSVRecord record = rows.next();
                 rowNumber++;
                 try {
-                    Transaction transaction = parseRecord(record, user, config);
-                    if (transaction != null) {
-                        // ✅ Set import batch metadata
-                        transaction.setImportBatchId(importBatch.getId());
-
-                        Transaction saved = transactionService.save(transaction);
-                        imported.add(saved);
-                    }
+                    Transaction transaction = parseRecord(record, user, columns, formats, categories);
+                    // ✅ Set import batch metadata
+                    transaction.setImportBatchId(importBatch.getId());
+                    chunk.add(transaction);
                 } catch (Exception e) {
                     errors.add("Row " + rowNumber + ": " + e.getMessage());
                     logger.warn("Failed to parse row {}: {}", rowNumber, e.getMessage());
                 }
+
+                if (chunk.size() == chunkSize) {
+                    importedCount += writeChunk(chunk, chunkFirstRow, rowNumber, errors);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkFirstRow = rowNumber + 1;
+                }
             }
+            importedCount += writeChunk(chunk, chunkFirstRow, rowNumber, errors);
 
         } catch (Exception e) {
             logger.error("Failed to parse CSV file", e);
             throw new RuntimeException("Failed to parse CSV file: " + e.getMessage());
+        } finally {
+            // Cached reads are invalidated once for the whole file
+            if (importedCount > 0) {
+                transactionService.finishImport(user.getId());
+            }
         }
 
-        logger.info("✅ Imported {} transactions for user {}", imported.size(), user.getId());
+        logger.info("✅ Imported {} transactions for user {}", importedCount, user.getId());
+
+        return new ImportResult(importedCount, errors.toList());
+    }
 
-        return new ImportResult(imported.size(), errors);
+    private int writeChunk(List<Transaction> chunk, int firstRow, int lastRow, ImportErrors errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            return transactionService.importChunk(chunk);
+        } catch (Exception e) {
+            errors.add("Rows " + firstRow + "-" + lastRow + ": " + e.getMessage());
+            logger.error("Failed to save rows {}-{}: {}", firstRow, lastRow, e.getMessage());
+            return 0;
+        }
     }
 
     private static ImportedFile getImportedFile(MultipartFile file, User user, CsvImportConfig config) {
@@ -135,44 +166,45 @@ public class CsvImportService{
     /**
      * Parse a single CSV record into a Transaction
      */
-    private Transaction parseRecord(CSVRecord record, User user, CsvImportConfig config) {
+    private Transaction parseRecord(CSVRecord record, User user, Columns columns, Formats formats,
+                                    CategoryDictionary categories) {
         // Get date
-        String dateStr = getColumnValue(record, config.getDateColumn());
-        LocalDateTime date = parseDate(dateStr);
+        String dateStr = columns.value(record, columns.date());
+        LocalDate date = formats.dates().scan(dateStr);
         if (date == null) {
             throw new RuntimeException("Invalid date format: " + dateStr);
         }
 
-        // Get amount
-        String amountStr = getColumnValue(record, config.getAmountColumn());
-        Double amount = parseAmount(amountStr);
-        if (amount == null || amount == 0) {
+        // Get amount, in minor units
+        String amountStr = columns.value(record, columns.amount());
+        long amount = formats.amounts().scan(amountStr);
+        if (amount == AmountScanner.INVALID || amount == 0) {
             throw new RuntimeException("Invalid amount: " + amountStr);
         }
 
         // Determine transaction type
         Transaction.TransactionType type;
-        if (config.getTypeColumn() != null) {
-            String typeStr = getColumnValue(record, config.getTypeColumn());
+        if (columns.type() != Columns.MISSING) {
+            String typeStr = columns.value(record, columns.type());
             type = determineType(typeStr, amount);
         } else {
             type = amount > 0 ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
         }
 
         // Get description
-        String description = getColumnValue(record, config.getDescriptionColumn());
+        String description = columns.value(record, columns.description());
         if (description == null || description.isEmpty()) {
             description = "Imported transaction";
         }
 
         // Auto-categorize based on description
-        Category category = autoCategorize(description, type);
+        Category category = autoCategorize(description, type, categories);
 
         // Build transaction
         Transaction transaction = new Transaction();
         transaction.setUser(user);
-        transaction.setDate(date);
-        transaction.setAmount(Math.abs(amount));
+        transaction.setDate(date.atStartOfDay());
+        transaction.setAmount(BigDecimal.valueOf(Math.abs(amount), 2));
         transaction.setType(type);
         transaction.setDescription(description);
         transaction.setCategory(category);
@@ -184,67 +216,10 @@ public class CsvImportService{
         return transaction;
     }
 
-    /**
-     * Get column value by name (case-insensitive)
-     */
-    private String getColumnValue(CSVRecord record, String columnName) {
-        if (columnName == null) return null;
-
-        // Try exact match first
-        if (record.isMapped(columnName)) {
-            return record.get(columnName);
-        }
-
-        // Try case-insensitive match
-        for (String header : record.toMap().keySet()) {
-            if (header.equalsIgnoreCase(columnName)) {
-                return record.get(header);
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Parse date string using multiple formats
-     */
-    private LocalDateTime parseDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) return null;
-
-        for (DateTimeFormatter formatter : DATE_FORMATS) {
-            try {
-                LocalDate date = LocalDate.parse(dateStr, formatter);
-                return date.atStartOfDay();
-            } catch (DateTimeParseException e) {
-                // Try next format
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Parse amount from string (handles various formats)
-     */
-    private Double parseAmount(String amountStr) {
-        if (amountStr == null || amountStr.isEmpty()) return null;
-
-        try {
-            // Remove currency symbols, spaces, and commas
-            String cleaned = amountStr
-                    .replaceAll("[^0-9.,-]", "")
-                    .replace(",", ".");
-
-            return Double.parseDouble(cleaned);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
     /**
      * Determine transaction type from type column or amount
      */
-    private Transaction.TransactionType determineType(String typeStr, Double amount) {
+    private Transaction.TransactionType determineType(String typeStr, long amount) {
         if (typeStr != null) {
             typeStr = typeStr.toLowerCase();
             if (typeStr.contains("income") || typeStr.contains("credit") ||
@@ -264,55 +239,133 @@ public class CsvImportService{
      * Auto-categorize transaction based on description
      */
 
-    private Category autoCategorize(String description, Transaction.TransactionType type) {
+    private Category autoCategorize(String description, Transaction.TransactionType type,
+                                    CategoryDictionary categories) {
         String lowerDesc = description.toLowerCase();
 
         // Income categories
         if (type == Transaction.TransactionType.INCOME) {
             if (lowerDesc.contains("salary") || lowerDesc.contains("wage")) {
-                return getCategoryByName("Salary");
+                return getCategoryByName("Salary", categories);
             }
-            return getCategoryByName("Other Income");
+            return getCategoryByName("Other Income", categories);
         }
 
         // Expense categories
         if (lowerDesc.contains("groceries") || lowerDesc.contains("supermarket") ||
                 lowerDesc.contains("market") || lowerDesc.contains("food")) {
-            return getCategoryByName("Groceries");
+            return getCategoryByName("Groceries", categories);
         }
         if (lowerDesc.contains("restaurant") || lowerDesc.contains("cafe") ||
                 lowerDesc.contains("pizza") || lowerDesc.contains("mcdonald")) {
-            return getCategoryByName("Dining");
+            return getCategoryByName("Dining", categories);
         }
         if (lowerDesc.contains("uber") || lowerDesc.contains("taxi") ||
                 lowerDesc.contains("transport") || lowerDesc.contains("gas")) {
-            return getCategoryByName("Transportation");
+            return getCategoryByName("Transportation", categories);
         }
         if (lowerDesc.contains("rent") || lowerDesc.contains("mortgage")) {
-            return getCategoryByName("Housing");
+            return getCategoryByName("Housing", categories);
         }
         if (lowerDesc.contains("electric") || lowerDesc.contains("water") ||
                 lowerDesc.contains("utilities") || lowerDesc.contains("internet")) {
-            return getCategoryByName("Utilities");
+            return getCategoryByName("Utilities", categories);
         }
         if (lowerDesc.contains("netflix") || lowerDesc.contains("spotify") ||
                 lowerDesc.contains("entertainment")) {
-            return getCategoryByName("Entertainment");
+            return getCategoryByName("Entertainment", categories);
         }
 
-        return getCategoryByName("Other Expenses");
+        return getCategoryByName("Other Expenses", categories);
     }
 
     /**
-     * Get category by name (case-insensitive)
+     * Get category by name (case-insensitive) from the dictionary loaded for this import
      */
-    private Category getCategoryByName(String name) {
-        try {
-            return categoryService.findByName(name);
-        } catch (Exception e) {
-            logger.warn("Failed to find category: {}", name);
+    private Category getCategoryByName(String name, CategoryDictionary categories) {
+        Long id = categories.idOf(name);
+        if (id == null) {
+            logger.debug("No category named: {}", name);
             return null;
         }
+        return categoryService.getReference(id);
+    }
+
+    /**
+     * Positions of the configured columns in the header (case-insensitive), MISSING when absent
+     */
+    private record Columns(int date, int amount, int description, int type) {
+        static final int MISSING = -1;
+
+        static Columns resolve(Map<String, Integer> headerMap, CsvImportConfig config) {
+            return new Columns(
+                    indexOf(headerMap, config.getDateColumn()),
+                    indexOf(headerMap, config.getAmountColumn()),
+                    indexOf(headerMap, config.getDescriptionColumn()),
+                    indexOf(headerMap, config.getTypeColumn()));
+        }
+
+        private static int indexOf(Map<String, Integer> headerMap, String columnName) {
+            if (columnName == null) return MISSING;
+
+            // Try exact match first
+            Integer index = headerMap.get(columnName);
+            if (index != null) return index;
+
+            // Try case-insensitive match
+            for (Map.Entry<String, Integer> header : headerMap.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(columnName)) {
+                    return header.getValue();
+                }
+            }
+            return MISSING;
+        }
+
+        // Short rows simply lack the trailing columns
+        String value(CSVRecord record, int index) {
+            return index != MISSING && index < record.size() ? record.get(index) : null;
+        }
+    }
+
+    /**
+     * Date layout and amount convention inferred for one file
+     */
+    private record Formats(DateScanner dates, AmountScanner amounts) {
+        static Formats infer(List<CSVRecord> sample, Columns columns) {
+            List<String> dates = new ArrayList<>(sample.size());
+            List<String> amounts = new ArrayList<>(sample.size());
+            for (CSVRecord record : sample) {
+                dates.add(columns.value(record, columns.date()));
+                amounts.add(columns.value(record, columns.amount()));
+            }
+            return new Formats(DateScanner.infer(dates), AmountScanner.infer(amounts));
+        }
+    }
+
+    /**
+     * Row errors for the response; only the first MAX_REPORTED_ERRORS are kept so a bad file
+     * cannot grow the list without bound
+     */
+    private static class ImportErrors {
+        private final List<String> reported = new ArrayList<>();
+        private int omitted;
+
+        void add(String error) {
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(error);
+            } else {
+                omitted++;
+            }
+        }
+
+        List<String> toList() {
+            if (omitted == 0) {
+                return reported;
+            }
+            List<String> all = new ArrayList<>(reported);
+            all.add("... and " + omitted + " more errors");
+            return all;
+        }
     }
 
     public static class CsvImportConfig {
@@ -0,0 +1,7 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.DashboardDTO;
+
+public interface DashboardService {
+    DashboardDTO getDashboard(Long userId, int recentTransactions, int months);
+}
@@ -0,0 +1,120 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.AccountStatsDTO;
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.DashboardDTO;
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the dashboard's independent reads in parallel on the bounded dashboard executor.
+ * Each part goes through the regular service (own read-only transaction, same caches),
+ * so the result is identical to calling the separate endpoints.
+ */
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int MAX_RECENT_TRANSACTIONS = 50;
+    private static final int MAX_MONTHS = 36;
+
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final TransactionService transactionService;
+    private final SpendingRollupService spendingRollupService;
+    private final ProfileService profileService;
+    private final Executor dashboardExecutor;
+    private final Duration timeout;
+
+    public DashboardServiceImpl(CategoryService categoryService,
+                                BudgetService budgetService,
+                                TransactionService transactionService,
+                                SpendingRollupService spendingRollupService,
+                                ProfileService profileService,
+                                @Qualifier("dashboardExecutor") Executor dashboardExecutor,
+                                @Value("${app.dashboard.timeout:10s}") Duration timeout) {
+        this.categoryService = categoryService;
+        this.budgetService = budgetService;
+        this.transactionService = transactionService;
+        this.spendingRollupService = spendingRollupService;
+        this.profileService = profileService;
+        this.dashboardExecutor = dashboardExecutor;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public DashboardDTO getDashboard(Long userId, int recentTransactions, int months) {
+        if (recentTransactions < 1 || recentTransactions > MAX_RECENT_TRANSACTIONS) {
+            throw new InvalidRequestException("recent must be between 1 and " + MAX_RECENT_TRANSACTIONS);
+        }
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new InvalidRequestException("months must be between 1 and " + MAX_MONTHS);
+        }
+
+        YearMonth to = YearMonth.now();
+        YearMonth from = to.minusMonths(months - 1L);
+
+        CompletableFuture<List<CategoryDTO>> categories =
+                supply(() -> categoryService.getAllCategoriesForUser(userId));
+        CompletableFuture<List<BudgetWithSpending>> budgets =
+                supply(() -> budgetService.getAllBudgetsWithSpending(userId));
+        // Keyset first page: newest rows without the count query a Page would add
+        CompletableFuture<List<TransactionDTO>> recent =
+                supply(() -> transactionService.findByUserIdAfterCursor(userId.intValue(), null, null, null,
+                        null, null, null, null, recentTransactions, "desc").content());
+        CompletableFuture<List<MonthlyTotalDTO>> monthlyTotals =
+                supply(() -> spendingRollupService.getMonthlyTotals(userId, from, to));
+        CompletableFuture<AccountStatsDTO> accountStats =
+                supply(() -> profileService.getAccountStats(userId));
+
+        await(List.of(categories, budgets, recent, monthlyTotals, accountStats));
+
+        return new DashboardDTO(categories.join(), budgets.join(), recent.join(),
+                monthlyTotals.join(), accountStats.join());
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, dashboardExecutor);
+    }
+
+    private void await(List<CompletableFuture<?>> parts) {
+        try {
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            cancel(parts);
+            // Surface the failing part's own exception (SecurityException, "User not found", ...)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to load dashboard", e.getCause());
+        } catch (TimeoutException e) {
+            cancel(parts);
+            throw new RuntimeException("Loading the dashboard timed out");
+        } catch (InterruptedException e) {
+            cancel(parts);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading the dashboard");
+        }
+    }
+
+    // Cancelling the allOf future does not reach the parts. A cancelled part that is still
+    // queued on the executor is skipped; one already running finishes but is discarded.
+    private static void cancel(List<CompletableFuture<?>> parts) {
+        parts.forEach(part -> part.cancel(true));
+    }
+}
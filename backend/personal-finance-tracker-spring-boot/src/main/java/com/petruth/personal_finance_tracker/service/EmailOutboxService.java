@@ -0,0 +1,10 @@
+package com.petruth.personal_finance_tracker.service;
+
+public interface EmailOutboxService {
+    // Stores the message in the caller's transaction; it is sent once that commits
+    void enqueue(String recipient, String subject, String body, boolean html);
+    // Claims and sends one batch of due messages over a single SMTP connection; returns how many were claimed
+    int dispatchBatch();
+    // Deletes sent messages older than the retention period; returns how many
+    int purgeSent();
+}
@@ -0,0 +1,217 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.entity.EmailOutboxMessage;
+import com.petruth.personal_finance_tracker.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for mail. Callers only pay an INSERT; delivery happens on the scheduler thread.
+ *
+ * A batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED and leased (next_attempt_at pushed past
+ * the send), so several instances never claim the same message and no row lock is held during SMTP.
+ * The whole batch goes over one transport connection. Failures are retried with exponential backoff
+ * until max-attempts, then left as FAILED. Delivery is at least once: a crash between the send and
+ * recording it sends the batch again when the lease runs out.
+ */
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final Timer latency;
+    private final Timer batchTimer;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxServiceImpl(EmailOutboxRepository outboxRepository,
+                                  JavaMailSender mailSender,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${spring.mail.username}") String fromEmail,
+                                  @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                                  @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+                                  @Value("${app.email.outbox.lease:5m}") Duration lease,
+                                  @Value("${app.email.outbox.initial-backoff:30s}") Duration initialBackoff,
+                                  @Value("${app.email.outbox.max-backoff:1h}") Duration maxBackoff,
+                                  @Value("${app.email.outbox.retention:7d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        this.latency = Timer.builder("email.outbox.latency")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("email.outbox.batch")
+                .description("SMTP time per dispatched batch")
+                .register(meterRegistry);
+        this.sent = Counter.builder("email.outbox.messages").tag("outcome", "sent").register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.messages").tag("outcome", "retry").register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.messages").tag("outcome", "failed").register(meterRegistry);
+        // One indexed COUNT per scrape
+        Gauge.builder("email.outbox.pending", outboxRepository,
+                        repository -> repository.countByStatus(EmailOutboxMessage.Status.PENDING))
+                .description("Messages waiting to be sent, including ones backing off")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String recipient, String subject, String body, boolean html) {
+        outboxRepository.save(new EmailOutboxMessage(recipient, subject, body, html));
+    }
+
+    @Override
+    public int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> {
+            List<Long> ids = outboxRepository.lockDueIds(now, batchSize);
+            if (ids.isEmpty()) {
+                return List.<EmailOutboxMessage>of();
+            }
+            outboxRepository.lease(ids, now.plus(lease));
+            return outboxRepository.findAllById(ids);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Exception> failures = send(batch);
+        recordOutcomes(batch, failures);
+        return batch.size();
+    }
+
+    @Override
+    @Transactional
+    public int purgeSent() {
+        return outboxRepository.deleteByStatusAndSentAtBefore(EmailOutboxMessage.Status.SENT,
+                LocalDateTime.now().minus(retention));
+    }
+
+    // Returns the failed messages by id; an empty map means everything was accepted
+    private Map<Long, Exception> send(List<EmailOutboxMessage> batch) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> idByMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+
+        for (EmailOutboxMessage outgoing : batch) {
+            try {
+                MimeMessage message = toMimeMessage(outgoing);
+                idByMessage.put(message, outgoing.getId());
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(outgoing.getId(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            // JavaMailSenderImpl connects once and sends the whole array over that transport
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                idByMessage.values().forEach(id -> failures.put(id, e));
+            } else {
+                e.getFailedMessages().forEach((message, error) -> failures.put(idByMessage.get(message), error));
+            }
+        } catch (MailException e) {
+            // Connection or authentication failure: nothing was sent
+            idByMessage.values().forEach(id -> failures.put(id, e));
+        } finally {
+            sample.stop(batchTimer);
+        }
+        return failures;
+    }
+
+    private void recordOutcomes(List<EmailOutboxMessage> batch, Map<Long, Exception> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, EmailOutboxMessage> managed = outboxRepository.findAllById(
+                            batch.stream().map(EmailOutboxMessage::getId).toList())
+                    .stream().collect(Collectors.toMap(EmailOutboxMessage::getId, Function.identity()));
+
+            for (EmailOutboxMessage message : managed.values()) {
+                Exception error = failures.get(message.getId());
+                if (error == null) {
+                    message.markSent(now);
+                    latency.record(Duration.between(message.getCreatedAt(), now));
+                    sent.increment();
+                } else if (message.getAttempts() + 1 >= maxAttempts) {
+                    message.recordFailure(error.getMessage(), null);
+                    failed.increment();
+                    logger.error("❌ Giving up on email {} to {} after {} attempts: {}",
+                            message.getId(), message.getRecipient(), maxAttempts, error.getMessage());
+                } else {
+                    message.recordFailure(error.getMessage(), now.plus(backoff(message.getAttempts())));
+                    retried.increment();
+                    logger.warn("⚠️ Email {} to {} failed, will retry: {}",
+                            message.getId(), message.getRecipient(), error.getMessage());
+                }
+            }
+        });
+    }
+
+    // 30s, 1m, 2m, 4m, ... capped at max-backoff
+    private Duration backoff(int previousAttempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(previousAttempts, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage outgoing) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, outgoing.isHtml(), "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(outgoing.getRecipient());
+        helper.setSubject(outgoing.getSubject());
+        helper.setText(outgoing.getBody(), outgoing.isHtml());
+        return message;
+    }
+}
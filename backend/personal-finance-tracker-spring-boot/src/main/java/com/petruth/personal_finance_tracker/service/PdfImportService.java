@@ -1,11 +1,14 @@
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
 import com.petruth.personal_finance_tracker.entity.Category;
 import com.petruth.personal_finance_tracker.entity.ImportedFile;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
 import com.petruth.personal_finance_tracker.repository.ImportedFileRepository;
 import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.utils.AmountScanner;
+import com.petruth.personal_finance_tracker.utils.DateScanner;
 import jakarta.transaction.Transactional;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
@@ -20,7 +23,6 @@ import java.math.BigDecimal;
 import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -32,47 +34,9 @@ import java.util.regex.Pattern;
 public class PdfImportService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfImportService.class);
-    private static final Map<String, Integer> ROMANIAN_MONTHS = new HashMap<>();
     private static final Map<String, List<Pattern>> CATEGORY_PATTERNS = new LinkedHashMap<>();
 
     static {
-        // Abrevieri + forme complete (fără/ cu punct). Adaugă altele dacă apar diferit în PDF-uri.
-        ROMANIAN_MONTHS.put("ian", 1);
-        ROMANIAN_MONTHS.put("ian.", 1);
-        ROMANIAN_MONTHS.put("ianuarie", 1);
-        ROMANIAN_MONTHS.put("feb", 2);
-        ROMANIAN_MONTHS.put("feb.", 2);
-        ROMANIAN_MONTHS.put("februarie", 2);
-        ROMANIAN_MONTHS.put("mar", 3);
-        ROMANIAN_MONTHS.put("mar.", 3);
-        ROMANIAN_MONTHS.put("martie", 3);
-        ROMANIAN_MONTHS.put("apr", 4);
-        ROMANIAN_MONTHS.put("apr.", 4);
-        ROMANIAN_MONTHS.put("aprilie", 4);
-        ROMANIAN_MONTHS.put("mai", 5);
-        ROMANIAN_MONTHS.put("mai.", 5);
-        ROMANIAN_MONTHS.put("iun", 6);
-        ROMANIAN_MONTHS.put("iun.", 6);
-        ROMANIAN_MONTHS.put("iunie", 6);
-        ROMANIAN_MONTHS.put("iul", 7);
-        ROMANIAN_MONTHS.put("iul.", 7);
-        ROMANIAN_MONTHS.put("iulie", 7);
-        ROMANIAN_MONTHS.put("aug", 8);
-        ROMANIAN_MONTHS.put("aug.", 8);
-        ROMANIAN_MONTHS.put("august", 8);
-        ROMANIAN_MONTHS.put("sep", 9);
-        ROMANIAN_MONTHS.put("sep.", 9);
-        ROMANIAN_MONTHS.put("septembrie", 9);
-        ROMANIAN_MONTHS.put("oct", 10);
-        ROMANIAN_MONTHS.put("oct.", 10);
-        ROMANIAN_MONTHS.put("octombrie", 10);
-        ROMANIAN_MONTHS.put("nov", 11);
-        ROMANIAN_MONTHS.put("nov.", 11);
-        ROMANIAN_MONTHS.put("noiembrie", 11);
-        ROMANIAN_MONTHS.put("dec", 12);
-        ROMANIAN_MONTHS.put("dec.", 12);
-        ROMANIAN_MONTHS.put("decembrie", 12);
-
         CATEGORY_PATTERNS.put("Groceries", Arrays.asList(
                 Pattern.compile("\\b(kaufland|carrefour|lidl|auchan|mega\\s*image|profi|discount|corona)\\b", Pattern.CASE_INSENSITIVE)
         ));
@@ -108,32 +72,10 @@ public class PdfImportService {
     private final ImportedFileRepository importedFileRepository;
     private final TransactionRepository transactionRepository;
 
-    // Romanian date patterns (cover date-only, date+time and month names in Romanian)
-    private static final DateTimeFormatter[] DATE_FORMATS = new DateTimeFormatter[]{
-            // date-only (common separators)
-            DateTimeFormatter.ofPattern("d.MM.yyyy"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-            DateTimeFormatter.ofPattern("d/MM/yyyy"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("d-MM-yyyy"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-
-            // date + time (if PDF contains timestamps)
-            DateTimeFormatter.ofPattern("d.MM.yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("d/MM/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("d-MM-yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-
-            // month names in Romanian (e.g. "4 nov. 2025" or "4 nov 2025")
-            DateTimeFormatter.ofPattern("d MMM yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("d MMM. yyyy", Locale.of("ro")),
-            DateTimeFormatter.ofPattern("dd MMM. yyyy", Locale.of("ro"))
-    };
+    // Bank parsers pin the date shape with their own regexes; numeric day-first dates are tried first
+    private static final DateScanner DATES = DateScanner.of(DateScanner.Layout.DAY_MONTH_YEAR);
+    private static final AmountScanner DECIMAL_COMMA_AMOUNTS = AmountScanner.of(AmountScanner.Convention.DECIMAL_COMMA);
+    private static final AmountScanner DECIMAL_POINT_AMOUNTS = AmountScanner.of(AmountScanner.Convention.DECIMAL_POINT);
 
     public PdfImportService(TransactionService transactionService,
                             CategoryService categoryService,
@@ -185,12 +127,15 @@ public class PdfImportService {
                 logger.info("🔍 Auto-detect found {} transactions", parsedTransactions.size());
             }
 
+            // Category names resolve in memory, not with a query per row
+            CategoryDictionary categories = categoryService.getDictionaryForUser(user.getId());
+
             // Convert to transactions
             int processedCount = 0;
             for (ParsedTransaction parsed : parsedTransactions) {
                 processedCount++;
                 try {
-                    Transaction transaction = convertToTransaction(parsed, user);
+                    Transaction transaction = convertToTransaction(parsed, user, categories);
                     transaction = sanitizeTransaction(transaction); // Add sanitization
 
                     // Check for duplicates
@@ -707,7 +652,8 @@ public class PdfImportService {
     /**
      * Auto-categorize based on description
      */
-    private Category autoCategorize(String description, Transaction.TransactionType type) {
+    private Category autoCategorize(String description, Transaction.TransactionType type,
+                                    CategoryDictionary categories) {
         String lower = description.toLowerCase();
 
         // Income categories
@@ -717,14 +663,14 @@ public class PdfImportService {
                     lower.contains("salary") ||
                     lower.contains("cognizant") ||
                     lower.contains("wage")) {
-                return getCategoryByName("Salary");
+                return getCategoryByName("Salary", categories);
             }
             if (lower.contains("dobanda") ||
                     lower.contains("dobândă") ||
                     lower.contains("interest")) {
-                return getCategoryByName("Interest");
+                return getCategoryByName("Interest", categories);
             }
-            return getCategoryByName("Other Income");
+            return getCategoryByName("Other Income", categories);
         }
 
         // Expense categories - Romanian merchants
@@ -739,7 +685,7 @@ public class PdfImportService {
                 lower.contains("penny") ||
                 lower.contains("auchan") ||
                 lower.contains("magazin alimentar")) {
-            return getCategoryByName("Groceries");
+            return getCategoryByName("Groceries", categories);
         }
 
         // Dining & Restaurants
@@ -751,7 +697,7 @@ public class PdfImportService {
                 lower.contains("mcdonald") ||
                 lower.contains("kfc") ||
                 lower.contains("burger")) {
-            return getCategoryByName("Dining");
+            return getCategoryByName("Dining", categories);
         }
 
         // Fuel & Transportation
@@ -761,7 +707,7 @@ public class PdfImportService {
                 lower.contains("rompetrol") ||
                 lower.contains("lukoil") ||
                 lower.contains("laur el-bia")) { // Auto service
-            return getCategoryByName("Transportation");
+            return getCategoryByName("Transportation", categories);
         }
 
         // Shopping & Electronics
@@ -772,7 +718,7 @@ public class PdfImportService {
                 lower.contains("h&m") ||
                 lower.contains("zara") ||
                 lower.contains("decathlon")) {
-            return getCategoryByName("Shopping");
+            return getCategoryByName("Shopping", categories);
         }
 
         // Utilities & Bills
@@ -783,7 +729,7 @@ public class PdfImportService {
                 lower.contains("enel") ||
                 lower.contains("eon") ||
                 lower.contains("payu*vodafone")) {
-            return getCategoryByName("Utilities");
+            return getCategoryByName("Utilities", categories);
         }
 
         // Pharmacy & Health
@@ -792,7 +738,7 @@ public class PdfImportService {
                 lower.contains("catena") ||
                 lower.contains("sensiblu") ||
                 lower.contains("help net")) {
-            return getCategoryByName("Health");
+            return getCategoryByName("Health", categories);
         }
 
         // Entertainment & Gaming
@@ -803,7 +749,7 @@ public class PdfImportService {
                 lower.contains("cinema") ||
                 lower.contains("aws") || // Cloud services
                 lower.contains("city park mall")) {
-            return getCategoryByName("Entertainment");
+            return getCategoryByName("Entertainment", categories);
         }
 
         // Banking operations
@@ -811,7 +757,7 @@ public class PdfImportService {
                 lower.contains("commission") ||
                 lower.contains("taxa") ||
                 lower.contains("impozit")) {
-            return getCategoryByName("Bank Fees");
+            return getCategoryByName("Bank Fees", categories);
         }
 
         // ATM Withdrawals
@@ -819,23 +765,23 @@ public class PdfImportService {
                 lower.contains("retragere atm") ||
                 lower.contains("cash withdrawal") ||
                 lower.contains("atm")) {
-            return getCategoryByName("Cash Withdrawal");
+            return getCategoryByName("Cash Withdrawal", categories);
         }
 
         // Transfers
         if (lower.contains("revolut") ||
                 lower.contains("transfer") ||
                 lower.contains("virament")) {
-            return getCategoryByName("Transfers");
+            return getCategoryByName("Transfers", categories);
         }
 
         // Construction/Hardware stores
         if (lower.contains("constructii") ||
                 lower.contains("bricolaj")) {
-            return getCategoryByName("Home & Garden");
+            return getCategoryByName("Home & Garden", categories);
         }
 
-        return getCategoryByName("Other Expenses");
+        return getCategoryByName("Other Expenses", categories);
     }
 
     /**
@@ -1066,27 +1012,16 @@ public class PdfImportService {
     private BigDecimal parseRomanianAmount(String amount) {
         if (amount == null) throw new RuntimeException("Amount null");
 
-        // remove currency symbols and non-number chars except + - . ,
-        String cleaned = amount.replaceAll("[^0-9,\\.\\-+]", "");
-
-        // If both dot and comma present -> assume dot is thousands sep, comma decimal: "1.234,56"
-        if (cleaned.contains(".") && cleaned.contains(",")) {
-            cleaned = cleaned.replaceAll("\\.", ""); // remove thousands dots
-            cleaned = cleaned.replace(',', '.');    // comma -> dot decimal
-        } else {
-            // If only comma present -> decimal comma
-            if (cleaned.contains(",") && !cleaned.contains(".")) {
-                cleaned = cleaned.replace(',', '.');
-            }
-            // if only dot present -> keep as-is (dot as decimal)
-        }
-
-        // If string is like "+10" or "-50", still ok for BigDecimal
-        if (cleaned.isEmpty() || cleaned.equals("+") || cleaned.equals("-")) {
+        // Lines are matched one at a time, so the decimal separator is decided per value;
+        // a decimal comma when the value does not tell ("1.234")
+        AmountScanner scanner = AmountScanner.vote(amount) == AmountScanner.Convention.DECIMAL_POINT
+                ? DECIMAL_POINT_AMOUNTS
+                : DECIMAL_COMMA_AMOUNTS;
+        long units = scanner.scan(amount);
+        if (units == AmountScanner.INVALID) {
             throw new RuntimeException("Invalid amount: " + amount);
         }
-
-        return new BigDecimal(cleaned);
+        return BigDecimal.valueOf(units, 2);
     }
 
 
@@ -1095,52 +1030,19 @@ public class PdfImportService {
      */
     private LocalDate parseDate(String dateStr) {
         if (dateStr == null) throw new RuntimeException("Date string null");
-        String s = dateStr.trim().replaceAll("\\s+", " ");
-
-        // 1) CASE: "4 nov. 2025" sau "1 noiembrie 2025"
-        Matcher m = Pattern.compile("^(\\d{1,2})\\s+([\\p{L}\\.]+)\\s+(\\d{4})$", Pattern.CASE_INSENSITIVE).matcher(s);
-        if (m.matches()) {
-            String day = m.group(1);
-            String monthWord = m.group(2).toLowerCase(Locale.ROOT).replaceAll("\\.", "");
-            String year = m.group(3);
-
-            Integer monthNum = ROMANIAN_MONTHS.get(monthWord);
-            if (monthNum != null) {
-                String normalized = day + "." + (monthNum < 10 ? "0" + monthNum : monthNum) + "." + year;
-                try {
-                    return LocalDate.parse(normalized, DateTimeFormatter.ofPattern("d.MM.yyyy"));
-                } catch (Exception e) {
-                    // fallthrough to other parsers
-                }
-            }
-        }
-
-        for (DateTimeFormatter formatter : DATE_FORMATS) {
-            try {
-                return LocalDate.parse(s, formatter);
-            } catch (Exception e1) {
-                try {
-                    return LocalDateTime.parse(s, formatter).toLocalDate();
-                } catch (Exception e2) {
-                    // next formatter
-                }
-            }
-        }
 
-        // 3) Ultima încercare: normalizează separatori comuni și parse numeric simplu
-        String alt = s.replace("/", ".").replace("-", ".").replaceAll("\\s+", " ");
-        try {
-            return LocalDate.parse(alt, DateTimeFormatter.ofPattern("d.MM.yyyy"));
-        } catch (Exception e) {
+        LocalDate date = DATES.scan(dateStr);
+        if (date == null) {
             throw new RuntimeException("Invalid date format: " + dateStr);
         }
+        return date;
     }
 
 
     /**
      * Convert parsed transaction to Transaction entity
      */
-    private Transaction convertToTransaction(ParsedTransaction parsed, User user) {
+    private Transaction convertToTransaction(ParsedTransaction parsed, User user, CategoryDictionary categories) {
         Transaction transaction = new Transaction();
         transaction.setUser(user);
         transaction.setDate(parsed.date.atStartOfDay());
@@ -1150,20 +1052,22 @@ public class PdfImportService {
         transaction.setDescription(parsed.description);
 
         // Auto-categorize
-        Category category = autoCategorize(parsed.description, transaction.getType());
+        Category category = autoCategorize(parsed.description, transaction.getType(), categories);
         transaction.setCategory(category);
 
         return transaction;
     }
 
-
-    private Category getCategoryByName(String name) {
-        try {
-            return categoryService.findByName(name);
-        } catch (Exception e) {
-            logger.warn("Failed to find category: {}", name);
+    /**
+     * Get category by name (case-insensitive) from the dictionary loaded for this import
+     */
+    private Category getCategoryByName(String name, CategoryDictionary categories) {
+        Long id = categories.idOf(name);
+        if (id == null) {
+            logger.debug("No category named: {}", name);
             return null;
         }
+        return categoryService.getReference(id);
     }
 
     private String generateTransactionHash(Transaction transaction) {
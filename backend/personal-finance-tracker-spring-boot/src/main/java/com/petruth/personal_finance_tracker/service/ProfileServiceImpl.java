@@ -101,6 +101,7 @@ public class ProfileServiceImpl implements ProfileService{
      * Get account statistics
      */
     @Override
+    @Transactional(readOnly = true)
     public AccountStatsDTO getAccountStats(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -120,6 +121,7 @@ public class ProfileServiceImpl implements ProfileService{
      * Export all user data (GDPR compliance)
      */
     @Override
+    @Transactional(readOnly = true)
     public UserDataExportDTO exportUserData(Long userId) {
         // Get user info
         User user = userRepository.findById(userId)
@@ -0,0 +1,13 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+
+import java.util.Collection;
+
+public interface SearchIndexService {
+    // replace = the transaction was already indexed (update); runs in the caller's transaction
+    void index(Transaction transaction, boolean replace);
+    // Same, for many transactions at once: one batched insert for all their terms
+    void indexAll(Collection<Transaction> transactions, boolean replace);
+    int rebuildForUser(Long userId);
+}
@@ -0,0 +1,69 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.repository.TransactionSearchTermRepository;
+import com.petruth.personal_finance_tracker.utils.SearchTokenizer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains transaction_search_terms from description, merchant name and notes.
+ * Deletes need no work here: the terms cascade with the transaction row (FK ON DELETE CASCADE).
+ */
+@Service
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    private final TransactionSearchTermRepository searchTermRepository;
+    private final TransactionRepository transactionRepository;
+
+    public SearchIndexServiceImpl(TransactionSearchTermRepository searchTermRepository,
+                                  TransactionRepository transactionRepository) {
+        this.searchTermRepository = searchTermRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void index(Transaction transaction, boolean replace) {
+        indexAll(List.of(transaction), replace);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void indexAll(Collection<Transaction> transactions, boolean replace) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        if (replace) {
+            searchTermRepository.deleteByTransactionIdIn(transactions.stream().map(Transaction::getId).toList());
+        }
+        insertTerms(transactions);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildForUser(Long userId) {
+        searchTermRepository.deleteByUserId(userId);
+        return insertTerms(transactionRepository.findByUserIdOrderByDateDesc(userId.intValue()));
+    }
+
+    private int insertTerms(Collection<Transaction> transactions) {
+        List<TransactionSearchTerm.Key> rows = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            Long userId = transaction.getUser().getId();
+            for (String term : SearchTokenizer.tokenize(
+                    transaction.getDescription(), transaction.getMerchantName(), transaction.getNotes())) {
+                rows.add(new TransactionSearchTerm.Key(userId, term, transaction.getId()));
+            }
+        }
+        searchTermRepository.insertTerms(rows);
+        return rows.size();
+    }
+}
@@ -0,0 +1,16 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface SpendingRollupService {
+    // before = row as it was (null on insert), after = row as saved (null on delete)
+    void applyChange(TransactionSnapshot before, TransactionSnapshot after);
+    // Batch variant: deltas are summed per bucket first, so each touched bucket is upserted once
+    void applyChanges(List<TransactionSnapshot> before, List<TransactionSnapshot> after);
+    List<MonthlyTotalDTO> getMonthlyTotals(Long userId, YearMonth fromMonth, YearMonth toMonth);
+    int rebuildForUser(Long userId);
+}
@@ -0,0 +1,171 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+import com.petruth.personal_finance_tracker.entity.MonthlyCategoryRollup;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.repository.MonthlyCategoryRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+public class SpendingRollupServiceImpl implements SpendingRollupService {
+
+    private final MonthlyCategoryRollupRepository rollupRepository;
+    private final BalanceService balanceService;
+
+    public SpendingRollupServiceImpl(MonthlyCategoryRollupRepository rollupRepository,
+                                     BalanceService balanceService) {
+        this.rollupRepository = rollupRepository;
+        this.balanceService = balanceService;
+    }
+
+    /**
+     * Must run inside the caller's transaction, so the rollup and the row commit or roll back together
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(TransactionSnapshot before, TransactionSnapshot after) {
+        if (before != null && before.date() == null) before = null;
+        if (after != null && after.date() == null) after = null;
+
+        Set<Long> userIds = new TreeSet<>();
+        if (before != null) userIds.add(before.userId());
+        if (after != null) userIds.add(after.userId());
+        lockForWrite(userIds);
+
+        // Update inside the same bucket: one upsert with the amount difference
+        if (before != null && after != null && sameBucket(before, after)) {
+            BigDecimal delta = after.amount().subtract(before.amount());
+            if (delta.signum() != 0) {
+                addDelta(after, delta, 0);
+                balanceService.invalidateFrom(after.userId(), earliest(before.date(), after.date()));
+            }
+            return;
+        }
+
+        if (before != null) {
+            addDelta(before, before.amount().negate(), -1);
+            balanceService.invalidateFrom(before.userId(), before.date());
+        }
+        if (after != null) {
+            addDelta(after, after.amount(), 1);
+            balanceService.invalidateFrom(after.userId(), after.date());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChanges(List<TransactionSnapshot> before, List<TransactionSnapshot> after) {
+        Map<Bucket, BucketDelta> deltas = new LinkedHashMap<>();
+        for (TransactionSnapshot tx : before) {
+            if (tx.date() != null) {
+                deltas.computeIfAbsent(Bucket.of(tx), k -> new BucketDelta()).add(tx.amount().negate(), -1);
+            }
+        }
+        for (TransactionSnapshot tx : after) {
+            if (tx.date() != null) {
+                deltas.computeIfAbsent(Bucket.of(tx), k -> new BucketDelta()).add(tx.amount(), 1);
+            }
+        }
+
+        Set<Long> userIds = new TreeSet<>();
+        deltas.keySet().forEach(bucket -> userIds.add(bucket.userId()));
+        lockForWrite(userIds);
+
+        // Balance checkpoints are built from the rollups: drop those after each user's earliest changed month
+        Map<Long, LocalDate> earliestMonth = new HashMap<>();
+        deltas.forEach((bucket, delta) -> {
+            if (delta.amount.signum() != 0 || delta.count != 0) {
+                rollupRepository.addDelta(bucket.userId(), bucket.categoryId(), bucket.type().name(),
+                        bucket.monthStart(), delta.amount, delta.count);
+                earliestMonth.merge(bucket.userId(), bucket.monthStart(), (a, b) -> a.isBefore(b) ? a : b);
+            }
+        });
+        earliestMonth.forEach((userId, month) -> balanceService.invalidateFrom(userId, month.atStartOfDay()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlyTotalDTO> getMonthlyTotals(Long userId, YearMonth fromMonth, YearMonth toMonth) {
+        return rollupRepository.findMonthlyTotals(userId, fromMonth.atDay(1), toMonth.atDay(1));
+    }
+
+    /**
+     * Drop and recompute all buckets of a user (backfill and drift repair)
+     */
+    @Override
+    @Transactional
+    public int rebuildForUser(Long userId) {
+        // Waits for in-flight writes of this user and holds off new ones until the rebuild commits
+        rollupRepository.lockUserForRebuild(userId);
+        // Checkpoints were summed from the old buckets
+        balanceService.invalidateAll(userId);
+        rollupRepository.deleteByUserId(userId);
+        return rollupRepository.insertFromTransactions(userId);
+    }
+
+    // Shared user row lock against a concurrent rebuildForUser; taken in id order across users
+    private void lockForWrite(Set<Long> userIds) {
+        userIds.forEach(rollupRepository::lockUserForRollupWrite);
+    }
+
+    private void addDelta(TransactionSnapshot tx, BigDecimal amount, long count) {
+        rollupRepository.addDelta(
+                tx.userId(),
+                categoryKey(tx),
+                tx.type().name(),
+                monthStart(tx),
+                amount,
+                count
+        );
+    }
+
+    private boolean sameBucket(TransactionSnapshot a, TransactionSnapshot b) {
+        return Objects.equals(a.userId(), b.userId())
+                && categoryKey(a) == categoryKey(b)
+                && a.type() == b.type()
+                && monthStart(a).equals(monthStart(b));
+    }
+
+    private record Bucket(Long userId, long categoryId, Transaction.TransactionType type, LocalDate monthStart) {
+        static Bucket of(TransactionSnapshot tx) {
+            return new Bucket(tx.userId(), categoryKey(tx), tx.type(), monthStart(tx));
+        }
+    }
+
+    private static class BucketDelta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal amount, long count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+        }
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static long categoryKey(TransactionSnapshot tx) {
+        return tx.categoryId() != null ? tx.categoryId() : MonthlyCategoryRollup.NO_CATEGORY;
+    }
+
+    private static LocalDate monthStart(TransactionSnapshot tx) {
+        return tx.date().toLocalDate().withDayOfMonth(1);
+    }
+}
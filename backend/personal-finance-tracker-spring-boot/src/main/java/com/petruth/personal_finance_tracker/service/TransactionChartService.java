@@ -0,0 +1,10 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.ChartGranularity;
+import com.petruth.personal_finance_tracker.dto.ChartSeriesDTO;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+
+public interface TransactionChartService {
+    ChartSeriesDTO getSeries(int userId, Transaction.TransactionType type, ChartGranularity granularity,
+                             boolean byCategory, String fromDate, String toDate, int maxPoints);
+}
@@ -0,0 +1,186 @@
+package com.petruth.personal_finance_tracker.service;
+
+import com.petruth.personal_finance_tracker.dto.ChartGranularity;
+import com.petruth.personal_finance_tracker.dto.ChartPointDTO;
+import com.petruth.personal_finance_tracker.dto.ChartSeriesDTO;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
+import com.petruth.personal_finance_tracker.repository.ChartBucketView;
+import com.petruth.personal_finance_tracker.repository.TransactionChartRepository;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@CacheConfig(cacheNames = "transactions")
+public class TransactionChartServiceImpl implements TransactionChartService {
+
+    // Open bounds keep the native query free of nullable parameters
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final TransactionChartRepository chartRepository;
+
+    public TransactionChartServiceImpl(TransactionChartRepository chartRepository) {
+        this.chartRepository = chartRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'user:' + #userId + ':' + @userCacheGenerations.current('transactions', #userId) + " +
+            "':chart:' + #type.name() + ':' + #granularity.name() + ':' + " +
+            "#byCategory + ':' + #fromDate + ':' + #toDate + ':' + #maxPoints")
+    public ChartSeriesDTO getSeries(int userId, Transaction.TransactionType type, ChartGranularity granularity,
+                                    boolean byCategory, String fromDate, String toDate, int maxPoints) {
+        if (maxPoints < 1) {
+            throw new InvalidRequestException("maxPoints must be at least 1");
+        }
+
+        List<ChartBucketView> rows;
+        boolean wholeHistory = fromDate == null && toDate == null;
+        LocalDateTime from = fromDate != null ? parseDateTime(fromDate) : MIN_DATE;
+        LocalDateTime to = toDate != null ? parseDateTime(toDate) : MAX_DATE;
+
+        // Month and year buckets over the whole history are exactly what the rollups already hold
+        if (wholeHistory && (granularity == ChartGranularity.MONTH || granularity == ChartGranularity.YEAR)) {
+            rows = chartRepository.aggregateRollups((long) userId, type.name(), granularity.name(), byCategory);
+        } else {
+            rows = chartRepository.aggregateTransactions(
+                    (long) userId, type.name(), granularity.name(), byCategory, from, to);
+        }
+
+        List<ChartPointDTO> points = rows.stream()
+                .map(row -> new ChartPointDTO(
+                        LocalDate.parse(row.getBucket()),
+                        row.getCategoryId(),
+                        row.getCategoryName(),
+                        row.getTotal(),
+                        row.getTxCount()))
+                .toList();
+
+        // The x-axis covers the requested range, or the data when a bound is open
+        if (points.isEmpty() && (fromDate == null || toDate == null)) {
+            return new ChartSeriesDTO(type, granularity, byCategory, false, points);
+        }
+        LocalDate first = fromDate != null ? bucketOf(from.toLocalDate(), granularity) : points.getFirst().bucket();
+        LocalDate last = toDate != null ? bucketOf(to.toLocalDate(), granularity) : points.getLast().bucket();
+
+        long span = bucketsBetween(first, last, granularity) + 1;
+        if (span <= maxPoints) {
+            return new ChartSeriesDTO(type, granularity, byCategory, false, points);
+        }
+
+        long width = (span + maxPoints - 1) / maxPoints;
+        Windows windows = new Windows(first, granularity, width, (int) ((span + width - 1) / width));
+        List<ChartPointDTO> downsampled = byCategory
+                ? downsamplePerCategory(points, windows)
+                : downsample(points, windows, null, null);
+
+        return new ChartSeriesDTO(type, granularity, byCategory, true, downsampled);
+    }
+
+    /**
+     * Merge buckets into fixed windows of width buckets each, starting at the first bucket of the range,
+     * so every point covers the same time span. Totals and counts are summed, so the series still
+     * adds up; each point is labelled with the first bucket of its window and empty windows are zero.
+     */
+    private List<ChartPointDTO> downsample(List<ChartPointDTO> points, Windows windows,
+                                           Long categoryId, String categoryName) {
+        BigDecimal[] totals = new BigDecimal[windows.count()];
+        long[] counts = new long[windows.count()];
+        Arrays.fill(totals, BigDecimal.ZERO);
+
+        for (ChartPointDTO point : points) {
+            int window = windows.indexOf(point.bucket());
+            totals[window] = totals[window].add(point.total());
+            counts[window] += point.count();
+        }
+
+        List<ChartPointDTO> result = new ArrayList<>(windows.count());
+        for (int i = 0; i < windows.count(); i++) {
+            result.add(new ChartPointDTO(windows.start(i), categoryId, categoryName, totals[i], counts[i]));
+        }
+        return result;
+    }
+
+    private List<ChartPointDTO> downsamplePerCategory(List<ChartPointDTO> points, Windows windows) {
+        // Rows arrive ordered by bucket, so each per-category list stays in time order
+        Map<Long, List<ChartPointDTO>> byCategory = new LinkedHashMap<>();
+        for (ChartPointDTO point : points) {
+            byCategory.computeIfAbsent(point.categoryId(), k -> new ArrayList<>()).add(point);
+        }
+
+        // Every category gets the same windows, so stacked series line up
+        List<ChartPointDTO> result = new ArrayList<>();
+        for (List<ChartPointDTO> series : byCategory.values()) {
+            ChartPointDTO any = series.getFirst();
+            result.addAll(downsample(series, windows, any.categoryId(), any.categoryName()));
+        }
+
+        result.sort((a, b) -> {
+            int byBucket = a.bucket().compareTo(b.bucket());
+            return byBucket != 0 ? byBucket : Long.compare(
+                    Objects.requireNonNullElse(a.categoryId(), 0L),
+                    Objects.requireNonNullElse(b.categoryId(), 0L));
+        });
+        return result;
+    }
+
+    // First day of the bucket holding date, the same truncation as TransactionChartRepository
+    private static LocalDate bucketOf(LocalDate date, ChartGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    private static long bucketsBetween(LocalDate first, LocalDate last, ChartGranularity granularity) {
+        return unit(granularity).between(first, last);
+    }
+
+    private static ChronoUnit unit(ChartGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS;
+            case WEEK -> ChronoUnit.WEEKS;
+            case MONTH -> ChronoUnit.MONTHS;
+            case YEAR -> ChronoUnit.YEARS;
+        };
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Dates must be ISO date-times, e.g. 2024-01-31T00:00:00");
+        }
+    }
+
+    // count windows of width buckets each, the first one starting at first
+    private record Windows(LocalDate first, ChartGranularity granularity, long width, int count) {
+
+        int indexOf(LocalDate bucket) {
+            return (int) (bucketsBetween(first, bucket, granularity) / width);
+        }
+
+        LocalDate start(int index) {
+            return first.plus(index * width, unit(granularity));
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.dto.BulkResult;
+import com.petruth.personal_finance_tracker.dto.TransactionCursorPage;
 import com.petruth.personal_finance_tracker.dto.TransactionDTO;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     List<TransactionDTO> findByUserId(int userId, String type, String fromDate, String toDate,
@@ -25,6 +28,56 @@ public interface TransactionService {
             String sortDirection
     );
 
+    // Keyset (seek) pagination on (date, id): no OFFSET scan and no COUNT(*)
+    TransactionCursorPage findByUserIdAfterCursor(
+            int userId,
+            String type,
+            String fromDate,
+            String toDate,
+            Long categoryId,
+            Double minAmount,
+            Double maxAmount,
+            String cursor,
+            int size,
+            String sortDirection
+    );
+
+    // Text search over description, merchant and notes; every term is a prefix and all must match
+    Page<TransactionDTO> search(
+            int userId,
+            String query,
+            String type,
+            String fromDate,
+            String toDate,
+            Long categoryId,
+            Double minAmount,
+            Double maxAmount,
+            int page,
+            int size
+    );
+
+    // Pushes rows to the consumer as the database returns them; nothing is buffered or cached
+    void streamByUserId(
+            int userId,
+            String type,
+            String fromDate,
+            String toDate,
+            Long categoryId,
+            Double minAmount,
+            Double maxAmount,
+            Consumer<TransactionDTO> consumer
+    );
+
+    // Bulk writes for one user: one database transaction, per-item results, invalid items skipped
+    BulkResult createAll(Long userId, List<TransactionDTO> transactionDTOs);
+    BulkResult updateAll(Long userId, List<TransactionDTO> transactionDTOs);
+    BulkResult deleteAll(Long userId, List<Long> ids);
+
+    // File imports: each chunk is saved in its own database transaction without touching read caches;
+    // finishImport invalidates the user's cached reads once the whole file is in
+    int importChunk(List<Transaction> transactions);
+    void finishImport(Long userId);
+
     Transaction save(Transaction transaction);
     void deleteById(Long id);
     Transaction findById(Long id);
@@ -1,14 +1,22 @@
 package com.petruth.personal_finance_tracker.service;
 
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
+import com.petruth.personal_finance_tracker.dto.BulkItemResult;
+import com.petruth.personal_finance_tracker.dto.BulkResult;
+import com.petruth.personal_finance_tracker.dto.TransactionCursorPage;
 import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
 import com.petruth.personal_finance_tracker.entity.Category;
 import com.petruth.personal_finance_tracker.entity.Transaction;
 import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
 import com.petruth.personal_finance_tracker.repository.TransactionRepository;
 import com.petruth.personal_finance_tracker.specifications.TransactionSpecifications;
+import com.petruth.personal_finance_tracker.utils.SearchTokenizer;
+import com.petruth.personal_finance_tracker.utils.TransactionCursor;
 import com.petruth.personal_finance_tracker.utils.TransactionMapper;
+import jakarta.persistence.EntityManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,29 +24,59 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @CacheConfig(cacheNames = "transactions")
 public class TransactionServiceImpl implements TransactionService{
 
+    private static final String CACHE_NAME = "transactions";
+    private static final int MAX_BULK_SIZE = 500;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
     private final UserService userService;
     private final CategoryService categoryService;
+    private final SpendingRollupService spendingRollupService;
+    private final BudgetSpendingService budgetSpendingService;
+    private final SearchIndexService searchIndexService;
+    private final UserCacheGenerations userCacheGenerations;
+    private final EntityManager entityManager;
 
     TransactionServiceImpl(TransactionRepository transactionRepository,
                            TransactionMapper transactionMapper,
                            UserService userService,
-                           CategoryService categoryService
+                           CategoryService categoryService,
+                           SpendingRollupService spendingRollupService,
+                           BudgetSpendingService budgetSpendingService,
+                           SearchIndexService searchIndexService,
+                           UserCacheGenerations userCacheGenerations,
+                           EntityManager entityManager
                            ){
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
         this.userService = userService;
         this.categoryService = categoryService;
+        this.spendingRollupService = spendingRollupService;
+        this.budgetSpendingService = budgetSpendingService;
+        this.searchIndexService = searchIndexService;
+        this.userCacheGenerations = userCacheGenerations;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -48,8 +86,9 @@ public class TransactionServiceImpl implements TransactionService{
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(
-            key = "'user:' + #userId + ':default'",
+            key = "'user:' + #userId + ':' + @userCacheGenerations.current('transactions', #userId) + ':default'",
             condition = "#type == null && #fromDate == null && #toDate == null && " +
                     "#categoryId == null && #minAmount == null && #maxAmount == null",
             unless = "#result == null || #result.isEmpty()"
@@ -57,50 +96,116 @@ public class TransactionServiceImpl implements TransactionService{
     public List<TransactionDTO> findByUserId(int userId, String type, String fromDate, String toDate,
                                              Long categoryId, Double minAmount, Double maxAmount) {
 
-        Specification<Transaction> spec = Specification.unrestricted();
+        Specification<Transaction> spec = buildFilterSpec(userId, type, fromDate, toDate,
+                categoryId, minAmount, maxAmount);
 
-        // fetch only items belonging to the user
-        spec = spec.and(TransactionSpecifications.belongsToUser(userId));
+        // select only the DTO columns; no User/Category entities get hydrated
+        return transactionRepository.findDtos(spec, Sort.by(Sort.Direction.DESC, "date"));
+    }
 
-        // apply filter criteria
-        if (type != null) {
-            spec = spec.and(TransactionSpecifications.hasType(Transaction.TransactionType.valueOf(type.toUpperCase())));
-        }
-        if (categoryId != null) {
-            spec = spec.and(TransactionSpecifications.hasCategory(categoryId));
-        }
-        if (minAmount != null) {
-            spec = spec.and(TransactionSpecifications.minAmount(minAmount));
-        }
-        if (maxAmount != null) {
-            spec = spec.and(TransactionSpecifications.maxAmount(maxAmount));
-        }
-        if (fromDate != null) {
-            spec = spec.and(TransactionSpecifications.dateAfter(LocalDateTime.parse(fromDate)));
-        }
-        if (toDate != null) {
-            spec = spec.and(TransactionSpecifications.dateBefore(LocalDateTime.parse(toDate)));
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByUserId(int userId, String type, String fromDate, String toDate,
+                               Long categoryId, Double minAmount, Double maxAmount,
+                               Consumer<TransactionDTO> consumer) {
 
-        // fetch data after applying filtering criteria and use streams to map the returned list to TransactionDTO
-        return transactionRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "date"))
-                .stream()
-                .map(transactionMapper::toTransactionDTO)
-                .collect(Collectors.toList());
+        Specification<Transaction> spec = buildFilterSpec(userId, type, fromDate, toDate,
+                categoryId, minAmount, maxAmount);
+
+        // The JDBC result set stays open until the stream is closed, so consume it here
+        try (Stream<TransactionDTO> rows = transactionRepository.streamDtos(spec,
+                Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")))) {
+            rows.forEach(consumer);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<TransactionDTO> findByUserId(
             int userId, String type, String fromDate, String toDate,
             Long categoryId, Double minAmount, Double maxAmount,
             int page, int size, String sortBy, String sortDirection
     ) {
+        Specification<Transaction> spec = buildFilterSpec(userId, type, fromDate, toDate,
+                categoryId, minAmount, maxAmount);
+
+        // Create pageable with sorting
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("asc")
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+
+        return transactionRepository.findDtos(spec, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionCursorPage findByUserIdAfterCursor(
+            int userId, String type, String fromDate, String toDate,
+            Long categoryId, Double minAmount, Double maxAmount,
+            String cursor, int size, String sortDirection
+    ) {
+        // The size + 1 probe row below needs a positive size; the cap keeps a slice to one bounded read
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        Specification<Transaction> spec = buildFilterSpec(userId, type, fromDate, toDate,
+                categoryId, minAmount, maxAmount);
+
+        // Seek past the last row of the previous slice instead of skipping OFFSET rows
+        if (cursor != null && !cursor.isBlank()) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            spec = spec.and(TransactionSpecifications.seekAfter(position.date(), position.id(), ascending));
+        }
+
+        // (date, id) gives a total order, so no row is skipped or repeated between slices.
+        // One extra row tells us whether another slice exists without running COUNT(*).
+        Sort sort = Sort.by(direction, "date").and(Sort.by(direction, "id"));
+        List<TransactionDTO> rows = transactionRepository.findDtos(spec, sort, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<TransactionDTO> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionDTO last = content.getLast();
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+
+        return new TransactionCursorPage(content, size, hasNext, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TransactionDTO> search(int userId, String query, String type, String fromDate, String toDate,
+                                       Long categoryId, Double minAmount, Double maxAmount, int page, int size) {
+        Specification<Transaction> spec = buildFilterSpec(userId, type, fromDate, toDate,
+                categoryId, minAmount, maxAmount);
+
+        List<String> terms = SearchTokenizer.queryTerms(query);
+        if (!terms.isEmpty()) {
+            spec = spec.and(TransactionSpecifications.matchesAllTerms(userId, terms));
+        }
+
+        Pageable pageable = PageRequest.of(page, size,
+                Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")));
+        return transactionRepository.findDtos(spec, pageable);
+    }
+
+    private Specification<Transaction> buildFilterSpec(int userId, String type, String fromDate, String toDate,
+                                                       Long categoryId, Double minAmount, Double maxAmount) {
         Specification<Transaction> spec = Specification.unrestricted();
+
+        // fetch only items belonging to the user
         spec = spec.and(TransactionSpecifications.belongsToUser(userId));
 
-        // Apply filters (existing code)...
+        // apply filter criteria
         if (type != null) {
-            spec = spec.and(TransactionSpecifications.hasType(Transaction.TransactionType.valueOf(type.toUpperCase())));
+            spec = spec.and(TransactionSpecifications.hasType(parseType(type)));
         }
         if (categoryId != null) {
             spec = spec.and(TransactionSpecifications.hasCategory(categoryId));
@@ -112,55 +217,295 @@ public class TransactionServiceImpl implements TransactionService{
             spec = spec.and(TransactionSpecifications.maxAmount(maxAmount));
         }
         if (fromDate != null) {
-            spec = spec.and(TransactionSpecifications.dateAfter(LocalDateTime.parse(fromDate)));
+            spec = spec.and(TransactionSpecifications.dateAfter(parseDateTime(fromDate)));
         }
         if (toDate != null) {
-            spec = spec.and(TransactionSpecifications.dateBefore(LocalDateTime.parse(toDate)));
+            spec = spec.and(TransactionSpecifications.dateBefore(parseDateTime(toDate)));
         }
+        return spec;
+    }
 
-        // Create pageable with sorting
-        Sort.Direction direction = sortDirection.equalsIgnoreCase("asc")
-                ? Sort.Direction.ASC
-                : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-
-        Page<Transaction> transactionPage = transactionRepository.findAll(spec, pageable);
+    // Filter values come straight from the query string; a bad one is the client's mistake
+    private static Transaction.TransactionType parseType(String type) {
+        try {
+            return Transaction.TransactionType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Type must be INCOME or EXPENSE");
+        }
+    }
 
-        return transactionPage.map(transactionMapper::toTransactionDTO);
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Dates must be ISO date-times, e.g. 2024-01-31T00:00:00");
+        }
     }
 
 
 
     // We use TransactionDTO for cleaner requests and responses
     @Override
-    @CacheEvict(allEntries = true)
+    @Transactional
     public Transaction saveFromDTO(TransactionDTO transactionDTO) {
         User dbUser = userService.findById(transactionDTO.getUserId());
         Category dbCategory = categoryService.findById(transactionDTO.getCategoryId());
         Transaction transaction = transactionMapper.toTransaction(transactionDTO, dbUser, dbCategory);
-        return transactionRepository.save(transaction);
+        return saveAndTrack(transaction);
     }
 
     @Override
-    @Cacheable(key = "'user:' + #id + ':type:' + #type.name()")
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'user:' + #id + ':' + @userCacheGenerations.current('transactions', #id) + ':type:' + #type.name()")
     public List<TransactionDTO> findByUserIdAndTypeOrderByDate(int id, Transaction.TransactionType type) {
-        List<Transaction> dbTransactions = transactionRepository.findByUserIdAndTypeOrderByDate(id, type);
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(id)
+                .and(TransactionSpecifications.hasType(type));
 
-        return dbTransactions.stream()
-                .map(transactionMapper::toTransactionDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findDtos(spec, Sort.by(Sort.Direction.ASC, "date"));
     }
 
 
     @Override
-    @CacheEvict(allEntries = true)
+    @Transactional
     public Transaction save(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        return saveAndTrack(transaction);
     }
 
     @Override
-    @CacheEvict(allEntries = true)
+    @Transactional
     public void deleteById(Long id) {
+        TransactionSnapshot before = transactionRepository.findSnapshotById(id).orElse(null);
         transactionRepository.deleteById(id);
+        spendingRollupService.applyChange(before, null);
+        budgetSpendingService.applyChange(before, null);
+
+        if (before != null) {
+            userCacheGenerations.bump(CACHE_NAME, before.userId());
+        }
+    }
+
+    @Override
+    @Transactional
+    public BulkResult createAll(Long userId, List<TransactionDTO> transactionDTOs) {
+        checkBulkSize(transactionDTOs.size());
+
+        // User and categories are resolved once for the whole batch
+        User user = userService.findById(userId);
+        Map<Long, Category> categories = categoryService.findAllByIds(categoryIds(transactionDTOs));
+
+        BulkItemResult[] results = new BulkItemResult[transactionDTOs.size()];
+        List<Transaction> toSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        for (int i = 0; i < transactionDTOs.size(); i++) {
+            TransactionDTO dto = transactionDTOs.get(i);
+            String error = validateBulkItem(dto, categories, userId);
+            if (error != null) {
+                results[i] = BulkItemResult.failed(i, null, error);
+                continue;
+            }
+
+            dto.setId(null);
+            dto.setUserId(userId);
+            // Synced/pasted rows carry their own date; fall back to now like the single create
+            if (dto.getDate() == null) {
+                dto.setDate(LocalDateTime.now());
+            }
+            toSave.add(transactionMapper.toTransaction(dto, user, categories.get(dto.getCategoryId())));
+            positions.add(i);
+        }
+
+        List<Transaction> saved = transactionRepository.saveAll(toSave);
+
+        List<TransactionSnapshot> after = new ArrayList<>(saved.size());
+        for (int j = 0; j < saved.size(); j++) {
+            Transaction transaction = saved.get(j);
+            after.add(TransactionSnapshot.of(transaction));
+            results[positions.get(j)] = BulkItemResult.success(positions.get(j), transaction.getId(),
+                    BulkItemResult.Status.CREATED);
+        }
+        searchIndexService.indexAll(saved, false);
+        spendingRollupService.applyChanges(List.of(), after);
+        budgetSpendingService.applyChanges(List.of(), after);
+
+        if (!saved.isEmpty()) {
+            userCacheGenerations.bump(CACHE_NAME, userId);
+        }
+        return BulkResult.of(Arrays.asList(results));
+    }
+
+    @Override
+    @Transactional
+    public int importChunk(List<Transaction> transactions) {
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+
+        List<TransactionSnapshot> after = new ArrayList<>(saved.size());
+        for (Transaction transaction : saved) {
+            after.add(TransactionSnapshot.of(transaction));
+        }
+        // Terms of the whole chunk go out in a few multi-row inserts
+        searchIndexService.indexAll(saved, false);
+        spendingRollupService.applyChanges(List.of(), after);
+        budgetSpendingService.applyChanges(List.of(), after);
+
+        // With open-in-view the persistence context lives as long as the request; without this
+        // it would hold every row of the file
+        entityManager.flush();
+        entityManager.clear();
+        return saved.size();
+    }
+
+    @Override
+    public void finishImport(Long userId) {
+        userCacheGenerations.bump(CACHE_NAME, userId);
+    }
+
+    @Override
+    @Transactional
+    public BulkResult updateAll(Long userId, List<TransactionDTO> transactionDTOs) {
+        checkBulkSize(transactionDTOs.size());
+
+        Map<Long, Transaction> existing = transactionRepository.findAllById(transactionDTOs.stream()
+                        .map(TransactionDTO::getId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        Map<Long, Category> categories = categoryService.findAllByIds(categoryIds(transactionDTOs));
+
+        BulkItemResult[] results = new BulkItemResult[transactionDTOs.size()];
+        List<TransactionSnapshot> before = new ArrayList<>();
+        List<Transaction> changed = new ArrayList<>();
+
+        for (int i = 0; i < transactionDTOs.size(); i++) {
+            TransactionDTO dto = transactionDTOs.get(i);
+            Transaction transaction = dto.getId() != null ? existing.get(dto.getId()) : null;
+
+            // Someone else's transaction is reported exactly like a missing one
+            String error = transaction == null || !transaction.getUser().getId().equals(userId)
+                    ? "Transaction not found"
+                    : validateBulkItem(dto, categories, userId);
+            if (error == null && changed.contains(transaction)) {
+                error = "Duplicate id in request";
+            }
+            if (error != null) {
+                results[i] = BulkItemResult.failed(i, dto.getId(), error);
+                continue;
+            }
+
+            // Snapshot before mutating: the entity is managed and changes are flushed at commit
+            before.add(TransactionSnapshot.of(transaction));
+            transaction.setAmount(dto.getAmount());
+            transaction.setType(Transaction.TransactionType.valueOf(dto.getType()));
+            transaction.setDescription(dto.getDescription());
+            // A missing date keeps the stored one; a new one can move the row to another month
+            if (dto.getDate() != null) {
+                transaction.setDate(dto.getDate());
+            }
+            transaction.setCategory(categories.get(dto.getCategoryId()));
+            changed.add(transaction);
+
+            results[i] = BulkItemResult.success(i, transaction.getId(), BulkItemResult.Status.UPDATED);
+        }
+
+        // Dirty entities are flushed together as one JDBC batch of UPDATEs (hibernate.jdbc.batch_size)
+        transactionRepository.saveAll(changed);
+
+        List<TransactionSnapshot> after = new ArrayList<>(changed.size());
+        for (Transaction transaction : changed) {
+            after.add(TransactionSnapshot.of(transaction));
+        }
+        searchIndexService.indexAll(changed, true);
+        spendingRollupService.applyChanges(before, after);
+        budgetSpendingService.applyChanges(before, after);
+
+        if (!changed.isEmpty()) {
+            userCacheGenerations.bump(CACHE_NAME, userId);
+        }
+        return BulkResult.of(Arrays.asList(results));
+    }
+
+    @Override
+    @Transactional
+    public BulkResult deleteAll(Long userId, List<Long> ids) {
+        checkBulkSize(ids.size());
+
+        Map<Long, TransactionSnapshot> existing = transactionRepository.findAllById(ids.stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Transaction::getId, TransactionSnapshot::of));
+
+        BulkItemResult[] results = new BulkItemResult[ids.size()];
+        Map<Long, TransactionSnapshot> toDelete = new LinkedHashMap<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            TransactionSnapshot snapshot = id != null ? existing.get(id) : null;
+            if (snapshot == null || !snapshot.userId().equals(userId)) {
+                results[i] = BulkItemResult.failed(i, id, "Transaction not found");
+                continue;
+            }
+            toDelete.put(id, snapshot);
+            results[i] = BulkItemResult.success(i, id, BulkItemResult.Status.DELETED);
+        }
+
+        if (!toDelete.isEmpty()) {
+            // Single DELETE ... WHERE id IN (...); search terms go with the rows via ON DELETE CASCADE
+            transactionRepository.deleteAllByIdInBatch(toDelete.keySet());
+            spendingRollupService.applyChanges(new ArrayList<>(toDelete.values()), List.of());
+            budgetSpendingService.applyChanges(new ArrayList<>(toDelete.values()), List.of());
+            userCacheGenerations.bump(CACHE_NAME, userId);
+        }
+        return BulkResult.of(Arrays.asList(results));
+    }
+
+    private static void checkBulkSize(int size) {
+        if (size > MAX_BULK_SIZE) {
+            throw new InvalidRequestException("Bulk requests are limited to " + MAX_BULK_SIZE + " items");
+        }
+    }
+
+    private static Set<Long> categoryIds(List<TransactionDTO> transactionDTOs) {
+        return transactionDTOs.stream()
+                .map(TransactionDTO::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    // Returns the reason the item cannot be written, or null when it is valid
+    private static String validateBulkItem(TransactionDTO dto, Map<Long, Category> categories, Long userId) {
+        if (dto.getAmount() == null) {
+            return "Amount is required";
+        }
+        if (dto.getType() == null || Arrays.stream(Transaction.TransactionType.values())
+                .noneMatch(type -> type.name().equals(dto.getType()))) {
+            return "Type must be INCOME or EXPENSE";
+        }
+        Category category = dto.getCategoryId() != null ? categories.get(dto.getCategoryId()) : null;
+        // Predefined categories have no owner; custom ones must belong to the same user
+        if (category == null || (category.getUser() != null && !category.getUser().getId().equals(userId))) {
+            return "Category not found";
+        }
+        return null;
+    }
+
+    // Persist and keep derived aggregates in step, inside the caller's transaction
+    private Transaction saveAndTrack(Transaction transaction) {
+        TransactionSnapshot before = transaction.getId() != null
+                ? transactionRepository.findSnapshotById(transaction.getId()).orElse(null)
+                : null;
+
+        Transaction saved = transactionRepository.save(transaction);
+        TransactionSnapshot after = TransactionSnapshot.of(saved);
+        spendingRollupService.applyChange(before, after);
+        budgetSpendingService.applyChange(before, after);
+        searchIndexService.index(saved, before != null);
+
+        // Only the writer's cached reads are invalidated; other users keep their hits
+        userCacheGenerations.bump(CACHE_NAME, saved.getUser().getId());
+        return saved;
     }
 }
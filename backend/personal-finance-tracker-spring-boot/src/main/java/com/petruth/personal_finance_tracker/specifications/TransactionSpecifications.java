@@ -1,9 +1,14 @@
 package com.petruth.personal_finance_tracker.specifications;
 
 import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class TransactionSpecifications {
 
@@ -34,4 +39,32 @@ public class TransactionSpecifications {
     public static Specification<Transaction> dateBefore(LocalDateTime to) {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), to);
     }
+
+    // Keyset predicate: rows strictly after (date, id) in the given sort direction
+    public static Specification<Transaction> seekAfter(LocalDateTime date, Long id, boolean ascending) {
+        return (root, query, cb) -> ascending
+                ? cb.or(
+                        cb.greaterThan(root.get("date"), date),
+                        cb.and(cb.equal(root.get("date"), date), cb.greaterThan(root.get("id"), id)))
+                : cb.or(
+                        cb.lessThan(root.get("date"), date),
+                        cb.and(cb.equal(root.get("date"), date), cb.lessThan(root.get("id"), id)));
+    }
+
+    // Every term must prefix-match an indexed token of the transaction (terms are already normalized).
+    // Each term is a range scan on the (user_id, term, ...) primary key of transaction_search_terms.
+    public static Specification<Transaction> matchesAllTerms(int userId, List<String> terms) {
+        return (root, query, cb) -> {
+            Predicate[] predicates = new Predicate[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                Subquery<Long> matches = query.subquery(Long.class);
+                Root<TransactionSearchTerm> term = matches.from(TransactionSearchTerm.class);
+                matches.select(term.get("transactionId")).where(
+                        cb.equal(term.get("userId"), (long) userId),
+                        cb.like(term.get("term"), terms.get(i) + "%"));
+                predicates[i] = root.get("id").in(matches);
+            }
+            return cb.and(predicates);
+        };
+    }
 }
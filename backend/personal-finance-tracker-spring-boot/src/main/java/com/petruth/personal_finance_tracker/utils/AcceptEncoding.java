@@ -0,0 +1,42 @@
+package com.petruth.personal_finance_tracker.utils;
+
+import java.util.Locale;
+
+// Accept-Encoding as RFC 9110 reads it: "gzip;q=0" refuses gzip, and "*" covers codings not listed
+public class AcceptEncoding {
+
+    public static boolean allowsGzip(String header) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality(parts);
+            } else if (coding.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        // An explicit entry wins over the wildcard
+        Double q = gzip != null ? gzip : wildcard;
+        return q != null && q > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Unreadable weight: do not guess that the client accepts it
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,194 @@
+package com.petruth.personal_finance_tracker.utils;
+
+/**
+ * Reads statement amounts straight into minor units (cents) in one pass, without regexes,
+ * intermediate strings or exceptions: an unreadable value is INVALID.
+ * Currency symbols, letters and spaces are skipped; a '-' anywhere makes the amount negative
+ * ("-50,00", "50,00-", "RON -50,00"). The grouping separator is accepted only in front of exactly
+ * three digits, so one convention reads both "1.234,56" and "1234,56" but never mistakes the other
+ * convention's decimals ("12.50" under DECIMAL_COMMA) for grouping.
+ */
+public final class AmountScanner {
+
+    public static final long INVALID = Long.MIN_VALUE;
+
+    public enum Convention {
+        // 1.234,56 - Romanian bank statements
+        DECIMAL_COMMA,
+        // 1,234.56
+        DECIMAL_POINT
+    }
+
+    // Amounts are stored with two decimals (DECIMAL(15,2))
+    private static final int SCALE = 2;
+    // Leaves room for the last digit without overflowing a long
+    private static final long MAX_UNITS = Long.MAX_VALUE / 10 - 9;
+
+    private final Convention convention;
+    // False when inferred from samples that did not tell; each value is then read by its own vote
+    private final boolean decided;
+
+    private AmountScanner(Convention convention, boolean decided) {
+        this.convention = convention;
+        this.decided = decided;
+    }
+
+    public static AmountScanner of(Convention convention) {
+        return new AmountScanner(convention, true);
+    }
+
+    /**
+     * Picks the convention the samples agree on. A separator followed by one or two digits is
+     * decimal, one that repeats or precedes the other is grouping; "1.234" says nothing.
+     * When the samples do not tell (whole amounts only, or a tie), the scanner decides per value
+     * and reads values that say nothing either with DECIMAL_COMMA.
+     */
+    public static AmountScanner infer(Iterable<String> samples) {
+        int comma = 0;
+        int point = 0;
+        for (String sample : samples) {
+            Convention vote = vote(sample);
+            if (vote == Convention.DECIMAL_COMMA) {
+                comma++;
+            } else if (vote == Convention.DECIMAL_POINT) {
+                point++;
+            }
+        }
+        return new AmountScanner(point > comma ? Convention.DECIMAL_POINT : Convention.DECIMAL_COMMA, point != comma);
+    }
+
+    /**
+     * The convention a single value implies, or null when it is ambiguous
+     */
+    public static Convention vote(String value) {
+        if (value == null) {
+            return null;
+        }
+        int commas = 0;
+        int points = 0;
+        int last = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',') {
+                commas++;
+                last = i;
+            } else if (c == '.') {
+                points++;
+                last = i;
+            }
+        }
+        if (last < 0) {
+            return null;
+        }
+
+        char lastSeparator = value.charAt(last);
+        if (commas > 0 && points > 0) {
+            // The last separator is the decimal one: "1.234,56", "1,234.56"
+            return lastSeparator == ',' ? Convention.DECIMAL_COMMA : Convention.DECIMAL_POINT;
+        }
+        if (commas + points > 1) {
+            // Repeated separator is grouping: "1.234.567" means the comma is decimal
+            return lastSeparator == ',' ? Convention.DECIMAL_POINT : Convention.DECIMAL_COMMA;
+        }
+
+        int fractionDigits = 0;
+        for (int i = last + 1; i < value.length() && isDigit(value.charAt(i)); i++) {
+            fractionDigits++;
+        }
+        if (fractionDigits == 1 || fractionDigits == 2) {
+            return lastSeparator == ',' ? Convention.DECIMAL_COMMA : Convention.DECIMAL_POINT;
+        }
+        return null;
+    }
+
+    public Convention convention() {
+        return convention;
+    }
+
+    /**
+     * Minor units, rounded half up past the second decimal; INVALID when there are no digits,
+     * more than one decimal separator, a grouping separator not followed by exactly three digits,
+     * or the value does not fit
+     */
+    public long scan(String value) {
+        if (value == null) {
+            return INVALID;
+        }
+        Convention valueConvention = convention;
+        if (!decided) {
+            Convention vote = vote(value);
+            if (vote != null) {
+                valueConvention = vote;
+            }
+        }
+        return valueConvention == Convention.DECIMAL_POINT ? scan(value, '.', ',') : scan(value, ',', '.');
+    }
+
+    private static long scan(String value, char decimalSeparator, char groupingSeparator) {
+        long units = 0;
+        int integerDigits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        boolean negative = false;
+        boolean roundUp = false;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                if (!inFraction) {
+                    if (units > MAX_UNITS) {
+                        return INVALID;
+                    }
+                    units = units * 10 + (c - '0');
+                    integerDigits++;
+                } else if (fractionDigits < SCALE) {
+                    units = units * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == SCALE) {
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else if (c == decimalSeparator) {
+                if (inFraction) {
+                    return INVALID;
+                }
+                inFraction = true;
+            } else if (c == groupingSeparator) {
+                if (inFraction || integerDigits == 0 || !groupFollows(value, i + 1)) {
+                    return INVALID;
+                }
+            } else if (c == '-') {
+                negative = true;
+            }
+            // currency symbols, spaces and '+' carry no value
+        }
+
+        if (integerDigits == 0 && fractionDigits == 0) {
+            return INVALID;
+        }
+        for (int i = Math.min(fractionDigits, SCALE); i < SCALE; i++) {
+            if (units > MAX_UNITS) {
+                return INVALID;
+            }
+            units *= 10;
+        }
+        if (roundUp) {
+            units++;
+        }
+        return negative ? -units : units;
+    }
+
+    // Exactly three digits from the given position, then anything but a digit
+    private static boolean groupFollows(String value, int from) {
+        for (int i = from; i < from + 3; i++) {
+            if (i >= value.length() || !isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return from + 3 == value.length() || !isDigit(value.charAt(from + 3));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,206 @@
+package com.petruth.personal_finance_tracker.utils;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Reads statement dates without DateTimeFormatter and without exceptions: an unreadable value is null.
+ * A file usually uses one layout, so infer() picks it from sample values and scan() tries that layout
+ * first; the others are only tried for values it does not match.
+ * Accepted: 4.03.2025, 04/03/2025, 04-03-2025, 2025-03-04, "4 mar. 2025", "4 martie 2025",
+ * each optionally followed by a time, which is ignored.
+ */
+public final class DateScanner {
+
+    public enum Layout {
+        DAY_MONTH_YEAR,
+        YEAR_MONTH_DAY,
+        DAY_MONTH_NAME_YEAR
+    }
+
+    // Romanian month names and abbreviations; index + 1 is the month number
+    private static final String[][] MONTH_NAMES = {
+            {"ian", "ianuarie"}, {"feb", "februarie"}, {"mar", "martie"}, {"apr", "aprilie"},
+            {"mai"}, {"iun", "iunie"}, {"iul", "iulie"}, {"aug", "august"},
+            {"sep", "sept", "septembrie"}, {"oct", "octombrie"}, {"noi", "nov", "noiembrie"},
+            {"dec", "decembrie"}
+    };
+
+    private static final Layout[] LAYOUTS = Layout.values();
+
+    private final Layout preferred;
+
+    private DateScanner(Layout preferred) {
+        this.preferred = preferred;
+    }
+
+    public static DateScanner of(Layout preferred) {
+        return new DateScanner(preferred);
+    }
+
+    /**
+     * The layout most samples match; DAY_MONTH_YEAR when none match
+     */
+    public static DateScanner infer(Iterable<String> samples) {
+        int[] votes = new int[LAYOUTS.length];
+        for (String sample : samples) {
+            for (Layout layout : LAYOUTS) {
+                if (sample != null && scan(sample, layout) != null) {
+                    votes[layout.ordinal()]++;
+                }
+            }
+        }
+
+        Layout best = Layout.DAY_MONTH_YEAR;
+        for (Layout layout : LAYOUTS) {
+            if (votes[layout.ordinal()] > votes[best.ordinal()]) {
+                best = layout;
+            }
+        }
+        return new DateScanner(best);
+    }
+
+    public Layout layout() {
+        return preferred;
+    }
+
+    public LocalDate scan(String value) {
+        if (value == null) {
+            return null;
+        }
+        LocalDate date = scan(value, preferred);
+        if (date != null) {
+            return date;
+        }
+        for (Layout layout : LAYOUTS) {
+            if (layout != preferred) {
+                date = scan(value, layout);
+                if (date != null) {
+                    return date;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static LocalDate scan(String value, Layout layout) {
+        Cursor in = new Cursor(value);
+        in.skipSpaces();
+
+        int day;
+        int month;
+        int year;
+        switch (layout) {
+            case DAY_MONTH_YEAR -> {
+                day = in.number(1, 2);
+                char separator = in.separator();
+                month = in.number(1, 2);
+                if (!in.take(separator)) return null;
+                year = in.number(4, 4);
+            }
+            case YEAR_MONTH_DAY -> {
+                year = in.number(4, 4);
+                char separator = in.separator();
+                month = in.number(1, 2);
+                if (!in.take(separator)) return null;
+                day = in.number(1, 2);
+            }
+            case DAY_MONTH_NAME_YEAR -> {
+                day = in.number(1, 2);
+                if (!in.skipSpaces()) return null;
+                month = in.monthName();
+                in.take('.');
+                if (!in.skipSpaces()) return null;
+                year = in.number(4, 4);
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        // Anything after the date must be separated from it (a time, usually)
+        if (!in.atEnd() && !in.skipSpaces()) {
+            return null;
+        }
+        return valid(year, month, day) ? LocalDate.of(year, month, day) : null;
+    }
+
+    private static boolean valid(int year, int month, int day) {
+        return year > 0 && month >= 1 && month <= 12
+                && day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    // Position in the value; failed reads return -1 and every later check fails on it
+    private static final class Cursor {
+        private final String value;
+        private int pos;
+
+        Cursor(String value) {
+            this.value = value;
+        }
+
+        boolean atEnd() {
+            return pos >= value.length();
+        }
+
+        // True if at least one space was skipped
+        boolean skipSpaces() {
+            int start = pos;
+            while (pos < value.length() && Character.isWhitespace(value.charAt(pos))) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        int number(int minDigits, int maxDigits) {
+            int result = 0;
+            int digits = 0;
+            while (pos < value.length() && digits < maxDigits) {
+                char c = value.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                result = result * 10 + (c - '0');
+                digits++;
+                pos++;
+            }
+            return digits >= minDigits ? result : -1;
+        }
+
+        char separator() {
+            if (pos < value.length()) {
+                char c = value.charAt(pos);
+                if (c == '.' || c == '/' || c == '-') {
+                    pos++;
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        boolean take(char expected) {
+            if (expected != 0 && pos < value.length() && value.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        int monthName() {
+            int start = pos;
+            while (pos < value.length() && Character.isLetter(value.charAt(pos))) {
+                pos++;
+            }
+            int length = pos - start;
+            for (int month = 0; month < MONTH_NAMES.length; month++) {
+                for (String name : MONTH_NAMES[month]) {
+                    if (name.length() == length && value.regionMatches(true, start, name, 0, length)) {
+                        return month + 1;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+}
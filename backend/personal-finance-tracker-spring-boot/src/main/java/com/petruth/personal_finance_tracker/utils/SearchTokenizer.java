@@ -0,0 +1,58 @@
+package com.petruth.personal_finance_tracker.utils;
+
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Same normalization for indexed text and queries: lowercase, no diacritics (ș -> s), alphanumeric runs only
+public class SearchTokenizer {
+
+    // Upper bound on AND-ed terms per query; each one is an index range scan
+    public static final int MAX_QUERY_TERMS = 5;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    public static Set<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            for (String token : SEPARATORS.split(normalize(text))) {
+                if (token.length() >= MIN_TOKEN_LENGTH) {
+                    tokens.add(token.length() > TransactionSearchTerm.MAX_TERM_LENGTH
+                            ? token.substring(0, TransactionSearchTerm.MAX_TERM_LENGTH)
+                            : token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // Query terms are matched as prefixes, so single characters are allowed
+    public static List<String> queryTerms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return SEPARATORS.splitAsStream(normalize(query))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term.length() > TransactionSearchTerm.MAX_TERM_LENGTH
+                        ? term.substring(0, TransactionSearchTerm.MAX_TERM_LENGTH)
+                        : term)
+                .distinct()
+                .limit(MAX_QUERY_TERMS)
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import com.petruth.personal_finance_tracker.utils.SearchTokenizer;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Indexes the transactions that existed before V3. Written in Java so the terms come from
+ * SearchTokenizer itself, exactly as SearchIndexService stores them for new rows.
+ * Reads in id order one page at a time; each page's terms go out as one JDBC batch.
+ */
+public class V3_1__Backfill_transaction_search_terms extends BaseJavaMigration {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT id, user_id, description, merchant_name, notes FROM transactions
+                WHERE id > ? ORDER BY id LIMIT ?
+                """);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT IGNORE INTO transaction_search_terms (user_id, term, transaction_id) VALUES (?, ?, ?)")) {
+
+            long lastId = 0;
+            int rows;
+            do {
+                select.setLong(1, lastId);
+                select.setInt(2, PAGE_SIZE);
+                rows = 0;
+                try (ResultSet page = select.executeQuery()) {
+                    while (page.next()) {
+                        lastId = page.getLong("id");
+                        long userId = page.getLong("user_id");
+                        for (String term : SearchTokenizer.tokenize(page.getString("description"),
+                                page.getString("merchant_name"), page.getString("notes"))) {
+                            insert.setLong(1, userId);
+                            insert.setString(2, term);
+                            insert.setLong(3, lastId);
+                            insert.addBatch();
+                        }
+                        rows++;
+                    }
+                }
+                insert.executeBatch();
+            } while (rows == PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Per-user data version behind the ETags of user data (UserDataVersions). Kept in the database so
+-- every application instance answers conditional GETs from the same version.
+-- Incremented in the writing transaction; a missing row means version 0.
+-- user_id 0 counts writes to data every user sees (predefined categories), hence no FK to users.
+CREATE TABLE user_data_versions (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
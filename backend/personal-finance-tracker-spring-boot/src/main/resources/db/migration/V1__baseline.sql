@@ -0,0 +1,100 @@
+-- Baseline schema as previously generated by Hibernate from the entities.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                              BIGINT       NOT NULL AUTO_INCREMENT,
+    username                        VARCHAR(255),
+    email                           VARCHAR(255),
+    password                        VARCHAR(255),
+    email_verified                  BIT(1),
+    email_verification_token        VARCHAR(255),
+    email_verification_token_expiry DATETIME(6),
+    created_at                      DATETIME(6),
+    updated_at                      DATETIME(6),
+    last_login                      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS categories (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255) NOT NULL,
+    user_id    BIGINT,
+    icon       VARCHAR(255),
+    color      VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_categories_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    amount          DECIMAL(15, 2),
+    type            ENUM ('INCOME', 'EXPENSE'),
+    description     TEXT,
+    date            DATETIME(6),
+    user_id         BIGINT         NOT NULL,
+    category_id     BIGINT,
+    is_manual       BIT(1),
+    source          VARCHAR(255),
+    import_batch_id BIGINT,
+    merchant_name   VARCHAR(255),
+    notes           TEXT,
+    tags            VARCHAR(255),
+    amount_hash     VARCHAR(255),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS budgets (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    name            VARCHAR(255),
+    amount          DECIMAL(15, 2),
+    user_id         BIGINT         NOT NULL,
+    category_id     BIGINT         NOT NULL,
+    start_date      DATE,
+    end_date        DATE,
+    alert_threshold INT,
+    is_active       BIT(1),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_budgets_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_budgets_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT       NOT NULL,
+    token       VARCHAR(500) NOT NULL,
+    expiry_date DATETIME(6)  NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    revoked     BIT(1)       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token UNIQUE (token),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS imported_files (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id            BIGINT       NOT NULL,
+    original_filename  VARCHAR(255) NOT NULL,
+    file_size_bytes    BIGINT,
+    total_rows         INT,
+    successful_imports INT,
+    failed_imports     INT,
+    duplicate_skipped  INT,
+    date_column        VARCHAR(255),
+    amount_column      VARCHAR(255),
+    description_column VARCHAR(255),
+    type_column        VARCHAR(255),
+    import_status      VARCHAR(255),
+    error_log          TEXT,
+    imported_at        DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_imported_files_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
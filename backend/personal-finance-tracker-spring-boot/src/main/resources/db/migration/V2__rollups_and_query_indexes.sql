@@ -0,0 +1,48 @@
+-- Monthly rollups (maintained by SpendingRollupService; backfilled below)
+CREATE TABLE IF NOT EXISTS monthly_category_rollups (
+    id                BIGINT                     NOT NULL AUTO_INCREMENT,
+    user_id           BIGINT                     NOT NULL,
+    category_id       BIGINT                     NOT NULL,
+    type              ENUM ('INCOME', 'EXPENSE') NOT NULL,
+    month_start       DATE                       NOT NULL,
+    total_amount      DECIMAL(15, 2)             NOT NULL,
+    transaction_count BIGINT                     NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rollup_user_category_type_month UNIQUE (user_id, category_id, type, month_start)
+) ENGINE = InnoDB;
+
+-- Backfill from the existing transactions, same buckets as MonthlyCategoryRollupRepository.insertFromTransactions.
+-- Recomputed from scratch in case the table already existed.
+DELETE FROM monthly_category_rollups;
+INSERT INTO monthly_category_rollups
+    (user_id, category_id, type, month_start, total_amount, transaction_count)
+SELECT t.user_id, COALESCE(t.category_id, 0), t.type,
+       DATE_FORMAT(t.date, '%Y-%m-01'), SUM(t.amount), COUNT(*)
+FROM transactions t
+WHERE t.date IS NOT NULL
+GROUP BY t.user_id, COALESCE(t.category_id, 0), t.type, DATE_FORMAT(t.date, '%Y-%m-01');
+
+-- Hot query paths. Leading user_id columns also serve the user_id foreign keys.
+
+-- history, pagination, keyset cursor (date, id), date-range filters
+CREATE INDEX idx_transactions_user_date ON transactions (user_id, date, id);
+-- chart / type filters ordered by date
+CREATE INDEX idx_transactions_user_type_date ON transactions (user_id, type, date);
+-- budget spending and category filters
+CREATE INDEX idx_transactions_user_category_date ON transactions (user_id, category_id, date);
+-- duplicate detection on import
+CREATE INDEX idx_transactions_amount_hash_user ON transactions (amount_hash, user_id);
+
+CREATE INDEX idx_budgets_user ON budgets (user_id);
+
+-- findByName during import categorization
+CREATE INDEX idx_categories_name ON categories (name);
+
+-- expired token cleanup
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+-- email verification lookup
+CREATE INDEX idx_users_email_verification_token ON users (email_verification_token);
+
+-- data retention cleanup
+CREATE INDEX idx_imported_files_imported_at ON imported_files (imported_at);
@@ -0,0 +1,11 @@
+-- Inverted index for transaction search (maintained by SearchIndexService; existing rows are backfilled by V3_1).
+-- PK (user_id, term, transaction_id) serves the prefix lookup: user_id = ? AND term LIKE 'abc%'
+CREATE TABLE transaction_search_terms (
+    user_id        BIGINT      NOT NULL,
+    term           VARCHAR(64) NOT NULL,
+    transaction_id BIGINT      NOT NULL,
+    PRIMARY KEY (user_id, term, transaction_id),
+    KEY idx_search_terms_transaction (transaction_id),
+    CONSTRAINT fk_search_terms_transaction FOREIGN KEY (transaction_id)
+        REFERENCES transactions (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+-- Backing table for the pooled Transaction id generator (MySQL has no native sequences).
+-- Hibernate's pooled optimizer hands out (next_val - 49 .. next_val) from the value it reads,
+-- so start one full allocation (50) above the current maximum id.
+CREATE TABLE transaction_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO transaction_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM transactions;
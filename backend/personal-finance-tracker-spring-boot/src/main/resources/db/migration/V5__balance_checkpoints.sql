@@ -0,0 +1,11 @@
+-- Monthly balance checkpoints (maintained by BalanceService; built lazily on first read).
+-- They are computed from monthly_category_rollups, so they rely on the V2 backfill of that table.
+-- balance = income - expenses of every transaction dated before month_start.
+CREATE TABLE balance_checkpoints (
+    user_id     BIGINT         NOT NULL,
+    month_start DATE           NOT NULL,
+    balance     DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (user_id, month_start),
+    CONSTRAINT fk_balance_checkpoints_user FOREIGN KEY (user_id)
+        REFERENCES users (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
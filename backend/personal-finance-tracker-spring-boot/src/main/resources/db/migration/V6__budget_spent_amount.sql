@@ -0,0 +1,14 @@
+-- Live spend counter per budget: EXPENSE total of the budget's category within its own period.
+-- Adjusted by every transaction write (BudgetSpendingService); drift is repaired by the nightly reconciliation.
+ALTER TABLE budgets ADD COLUMN spent_amount DECIMAL(15, 2) NOT NULL DEFAULT 0;
+
+UPDATE budgets b
+SET b.spent_amount = (
+    SELECT COALESCE(SUM(t.amount), 0)
+    FROM transactions t
+    WHERE t.user_id = b.user_id
+      AND t.category_id = b.category_id
+      AND t.type = 'EXPENSE'
+      AND t.date >= b.start_date
+      AND t.date < b.end_date + INTERVAL 1 DAY
+);
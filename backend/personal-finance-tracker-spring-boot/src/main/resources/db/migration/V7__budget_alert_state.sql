@@ -0,0 +1,11 @@
+-- Alert state per budget, so the daily run only looks at budgets whose spending moved
+-- and only mails when the level goes up (NONE -> WARNING -> OVER_BUDGET).
+-- alert_dirty is set by every spend counter change (BudgetSpendingService) and cleared on evaluation.
+ALTER TABLE budgets
+    ADD COLUMN last_alert_level     ENUM ('NONE', 'WARNING', 'OVER_BUDGET') NOT NULL DEFAULT 'NONE',
+    ADD COLUMN last_alert_at        DATETIME(6)    NULL,
+    ADD COLUMN last_evaluated_spent DECIMAL(15, 2) NULL,
+    ADD COLUMN alert_dirty          BOOLEAN        NOT NULL DEFAULT TRUE;
+
+-- dirty budgets in id order for the paged alert run
+CREATE INDEX idx_budgets_alert_dirty ON budgets (alert_dirty, id);
@@ -0,0 +1,19 @@
+-- Outgoing mail, written in the caller's transaction and delivered by EmailOutboxScheduler.
+-- A claimed row is leased by pushing next_attempt_at forward; failures retry with backoff.
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGINT                              NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255)                        NOT NULL,
+    subject         VARCHAR(255)                        NOT NULL,
+    body            MEDIUMTEXT                          NOT NULL,
+    html            BOOLEAN                             NOT NULL,
+    status          ENUM ('PENDING', 'SENT', 'FAILED')  NOT NULL DEFAULT 'PENDING',
+    attempts        INT                                 NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6)                         NOT NULL,
+    created_at      DATETIME(6)                         NOT NULL,
+    sent_at         DATETIME(6)                         NULL,
+    last_error      VARCHAR(500)                        NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- due messages in order, for the dispatcher's SKIP LOCKED claim and the queue depth count
+CREATE INDEX idx_email_outbox_due ON email_outbox (status, next_attempt_at, id);
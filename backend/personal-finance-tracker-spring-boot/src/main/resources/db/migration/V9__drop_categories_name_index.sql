@@ -0,0 +1,2 @@
+-- Imports categorize through the in-memory CategoryDictionary, so no query filters categories by name anymore.
+DROP INDEX idx_categories_name ON categories;
@@ -0,0 +1,37 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.utils.AcceptEncoding;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTest {
+
+    @Test
+    void shouldAllowListedGzip() {
+        assertThat(AcceptEncoding.allowsGzip("gzip")).isTrue();
+        assertThat(AcceptEncoding.allowsGzip("br, GZIP;q=0.5, deflate")).isTrue();
+    }
+
+    @Test
+    void zeroWeightShouldRefuseGzip() {
+        assertThat(AcceptEncoding.allowsGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("identity, gzip ; q=0.0")).isFalse();
+    }
+
+    @Test
+    void wildcardShouldCoverGzipUnlessGzipIsListed() {
+        assertThat(AcceptEncoding.allowsGzip("*")).isTrue();
+        assertThat(AcceptEncoding.allowsGzip("*;q=0")).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("*, gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("*;q=0, gzip")).isTrue();
+    }
+
+    @Test
+    void shouldNotGzipWhenNotAsked() {
+        assertThat(AcceptEncoding.allowsGzip(null)).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("")).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("br, deflate")).isFalse();
+        assertThat(AcceptEncoding.allowsGzip("gzip;q=abc")).isFalse();
+    }
+}
@@ -0,0 +1,80 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.utils.AmountScanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmountScannerTest {
+
+    private final AmountScanner decimalComma = AmountScanner.of(AmountScanner.Convention.DECIMAL_COMMA);
+    private final AmountScanner decimalPoint = AmountScanner.of(AmountScanner.Convention.DECIMAL_POINT);
+
+    @Test
+    void shouldReadMinorUnitsIgnoringGroupingAndCurrency() {
+        assertThat(decimalComma.scan("1.234,56")).isEqualTo(123_456);
+        assertThat(decimalComma.scan("1234,5 RON")).isEqualTo(123_450);
+        assertThat(decimalPoint.scan("$1,234.56")).isEqualTo(123_456);
+        assertThat(decimalPoint.scan("2500")).isEqualTo(250_000);
+    }
+
+    @Test
+    void shouldKeepTheSignWhereverTheMinusIs() {
+        assertThat(decimalComma.scan("-50,00")).isEqualTo(-5_000);
+        assertThat(decimalComma.scan("50,00-")).isEqualTo(-5_000);
+        assertThat(decimalPoint.scan("+9.99")).isEqualTo(999);
+    }
+
+    @Test
+    void shouldRoundHalfUpPastTwoDecimals() {
+        assertThat(decimalPoint.scan("12.345")).isEqualTo(1_235);
+        assertThat(decimalPoint.scan("12.3449")).isEqualTo(1_234);
+    }
+
+    @Test
+    void shouldReturnInvalidInsteadOfThrowing() {
+        assertThat(decimalComma.scan("1,2,3")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan("-")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan("")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan(null)).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan("99999999999999999999")).isEqualTo(AmountScanner.INVALID);
+    }
+
+    @Test
+    void shouldAcceptGroupingOnlyInFrontOfThreeDigits() {
+        assertThat(decimalComma.scan("1.234.567,00")).isEqualTo(123_456_700);
+        assertThat(decimalPoint.scan("1,234")).isEqualTo(123_400);
+        // The other convention's decimals are not silently dropped
+        assertThat(decimalComma.scan("12.50")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalPoint.scan("12,5")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan("1.2345,00")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan(".500")).isEqualTo(AmountScanner.INVALID);
+        assertThat(decimalComma.scan("1,50.000")).isEqualTo(AmountScanner.INVALID);
+    }
+
+    @Test
+    void shouldReadEachValueByItsOwnSeparatorsWhenTheSamplesDidNotTell() {
+        // A file that starts with whole amounts only
+        AmountScanner undecided = AmountScanner.infer(List.of("-40", "2500", "-60"));
+
+        assertThat(undecided.scan("12.50")).isEqualTo(1_250);
+        assertThat(undecided.scan("12,50")).isEqualTo(1_250);
+        assertThat(undecided.scan("1.234,56")).isEqualTo(123_456);
+        assertThat(undecided.scan("-40")).isEqualTo(-4_000);
+    }
+
+    @Test
+    void shouldInferTheConventionFromUnambiguousSamples() {
+        assertThat(AmountScanner.infer(List.of("-12.50", "-40", "2500")).convention())
+                .isEqualTo(AmountScanner.Convention.DECIMAL_POINT);
+        assertThat(AmountScanner.infer(List.of("1.234,00", "7")).convention())
+                .isEqualTo(AmountScanner.Convention.DECIMAL_COMMA);
+        assertThat(AmountScanner.infer(List.of("1.234.567")).convention())
+                .isEqualTo(AmountScanner.Convention.DECIMAL_COMMA);
+        // "1.234" could be either; Romanian statements use a decimal comma
+        assertThat(AmountScanner.infer(List.of("1.234")).convention())
+                .isEqualTo(AmountScanner.Convention.DECIMAL_COMMA);
+    }
+}
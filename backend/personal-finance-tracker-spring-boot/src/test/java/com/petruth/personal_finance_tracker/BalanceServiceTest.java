@@ -0,0 +1,135 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.BalancePointDTO;
+import com.petruth.personal_finance_tracker.dto.MonthlyTotalDTO;
+import com.petruth.personal_finance_tracker.entity.BalanceCheckpoint;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.repository.BalanceCheckpointRepository;
+import com.petruth.personal_finance_tracker.repository.MonthlyCategoryRollupRepository;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.service.BalanceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BalanceServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    private final BalanceCheckpointRepository checkpointRepository = mock(BalanceCheckpointRepository.class);
+    private final MonthlyCategoryRollupRepository rollupRepository = mock(MonthlyCategoryRollupRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+
+    private BalanceServiceImpl balanceService;
+
+    // Latest month start the service may store a checkpoint for
+    private final LocalDate lastStored = LocalDate.now().minusDays(1).withDayOfMonth(1);
+    private final LocalDate threeMonthsBack = lastStored.minusMonths(3);
+
+    @BeforeEach
+    void setup() {
+        balanceService = new BalanceServiceImpl(checkpointRepository, rollupRepository, transactionRepository,
+                mock(PlatformTransactionManager.class));
+        when(checkpointRepository.findById(any())).thenReturn(Optional.empty());
+        when(checkpointRepository.findFirstByUserIdAndMonthStartLessThanEqualOrderByMonthStartDesc(eq(USER_ID), any()))
+                .thenReturn(Optional.empty());
+        when(transactionRepository.sumNetAmount(eq(USER_ID), any(), any())).thenReturn(BigDecimal.ZERO);
+    }
+
+    @Test
+    void buildsMissingCheckpointsFromRollupsAndAddsRecentRows() {
+        when(rollupRepository.findMonthlyTotals(eq(USER_ID), any(), any())).thenReturn(List.of(
+                total(threeMonthsBack, Transaction.TransactionType.INCOME, "1000.00"),
+                total(threeMonthsBack, Transaction.TransactionType.EXPENSE, "200.00"),
+                total(threeMonthsBack.plusMonths(2), Transaction.TransactionType.EXPENSE, "300.00")));
+        when(transactionRepository.sumNetAmount(USER_ID, lastStored.atStartOfDay(),
+                LocalDate.now().plusDays(1).atStartOfDay())).thenReturn(new BigDecimal("50.00"));
+
+        BalancePointDTO balance = balanceService.getBalanceAt(USER_ID, LocalDate.now());
+
+        assertThat(balance.balance()).isEqualByComparingTo("550.00");
+
+        // One checkpoint per month after the first month with activity, lock taken before any read
+        InOrder order = inOrder(checkpointRepository, rollupRepository);
+        order.verify(checkpointRepository).lockUserForCheckpointBuild(USER_ID);
+        order.verify(rollupRepository).findMonthlyTotals(eq(USER_ID), any(), any());
+        order.verify(checkpointRepository).insertCheckpoint(USER_ID, threeMonthsBack.plusMonths(1), new BigDecimal("800.00"));
+        order.verify(checkpointRepository).insertCheckpoint(USER_ID, threeMonthsBack.plusMonths(2), new BigDecimal("800.00"));
+        order.verify(checkpointRepository).insertCheckpoint(USER_ID, lastStored, new BigDecimal("500.00"));
+    }
+
+    @Test
+    void extendsFromTheLatestStoredCheckpoint() {
+        BalanceCheckpoint latest = checkpoint(threeMonthsBack.plusMonths(2), "100.00");
+        when(checkpointRepository.findFirstByUserIdAndMonthStartLessThanEqualOrderByMonthStartDesc(USER_ID, lastStored))
+                .thenReturn(Optional.of(latest));
+        when(rollupRepository.findMonthlyTotals(USER_ID, threeMonthsBack.plusMonths(2), threeMonthsBack.plusMonths(2)))
+                .thenReturn(List.of(total(threeMonthsBack.plusMonths(2), Transaction.TransactionType.INCOME, "25.00")));
+
+        BalancePointDTO balance = balanceService.getBalanceAt(USER_ID, LocalDate.now());
+
+        assertThat(balance.balance()).isEqualByComparingTo("125.00");
+        verify(checkpointRepository).insertCheckpoint(USER_ID, lastStored, new BigDecimal("125.00"));
+    }
+
+    @Test
+    void usesStoredCheckpointWithoutBuilding() {
+        LocalDate date = threeMonthsBack.plusDays(9);
+        BalanceCheckpoint stored = checkpoint(threeMonthsBack, "400.00");
+        when(checkpointRepository.findById(new BalanceCheckpoint.Key(USER_ID, threeMonthsBack)))
+                .thenReturn(Optional.of(stored));
+        when(transactionRepository.sumNetAmount(USER_ID, threeMonthsBack.atStartOfDay(),
+                date.plusDays(1).atStartOfDay())).thenReturn(new BigDecimal("-40.00"));
+
+        BalancePointDTO balance = balanceService.getBalanceAt(USER_ID, date);
+
+        assertThat(balance.balance()).isEqualByComparingTo("360.00");
+        verify(checkpointRepository, never()).lockUserForCheckpointBuild(anyLong());
+    }
+
+    @Test
+    void backDatedWriteDropsOnlyLaterCheckpoints() {
+        LocalDateTime backDated = threeMonthsBack.plusDays(3).atTime(12, 0);
+
+        balanceService.invalidateFrom(USER_ID, backDated);
+
+        verify(checkpointRepository).lockUserForCheckpointInvalidation(USER_ID);
+        verify(checkpointRepository).deleteAfter(USER_ID, backDated.toLocalDate());
+    }
+
+    @Test
+    void currentWriteLeavesCheckpointsAlone() {
+        balanceService.invalidateFrom(USER_ID, LocalDateTime.now());
+
+        verify(checkpointRepository, never()).lockUserForCheckpointInvalidation(anyLong());
+        verify(checkpointRepository, never()).deleteAfter(anyLong(), any());
+    }
+
+    private static MonthlyTotalDTO total(LocalDate month, Transaction.TransactionType type, String amount) {
+        return new MonthlyTotalDTO(month, type, new BigDecimal(amount), 1L);
+    }
+
+    private static BalanceCheckpoint checkpoint(LocalDate month, String balance) {
+        BalanceCheckpoint checkpoint = mock(BalanceCheckpoint.class);
+        when(checkpoint.getMonthStart()).thenReturn(month);
+        when(checkpoint.getBalance()).thenReturn(new BigDecimal(balance));
+        return checkpoint;
+    }
+}
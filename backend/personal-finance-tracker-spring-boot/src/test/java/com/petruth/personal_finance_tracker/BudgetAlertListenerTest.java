@@ -0,0 +1,83 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.event.BudgetAlertListener;
+import com.petruth.personal_finance_tracker.event.BudgetSpendingChangedEvent;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.service.BudgetAlertService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetAlertListenerTest {
+
+    private final BudgetRepository budgetRepository = mock(BudgetRepository.class);
+    private final BudgetAlertService budgetAlertService = mock(BudgetAlertService.class);
+    private final BudgetAlertListener listener = new BudgetAlertListener(budgetRepository, budgetAlertService);
+
+    @Test
+    void evaluatesTouchedBudgetsPerUser() {
+        Budget first = budget(1L);
+        Budget second = budget(2L);
+        when(budgetRepository.findAlertDirtyByIdIn(Set.of(1L, 2L), LocalDate.now())).thenReturn(List.of(first, second));
+
+        listener.onBudgetSpendingChanged(new BudgetSpendingChangedEvent(Set.of(1L, 2L)));
+
+        verify(budgetAlertService).evaluate(List.of(first));
+        verify(budgetAlertService).evaluate(List.of(second));
+    }
+
+    @Test
+    void budgetsOfOneUserAreEvaluatedTogether() {
+        Budget food = budget(1L);
+        Budget rent = budget(2L);
+        rent.setUser(food.getUser());
+        when(budgetRepository.findAlertDirtyByIdIn(Set.of(1L, 2L), LocalDate.now())).thenReturn(List.of(food, rent));
+
+        listener.onBudgetSpendingChanged(new BudgetSpendingChangedEvent(Set.of(1L, 2L)));
+
+        verify(budgetAlertService).evaluate(List.of(food, rent));
+        verify(budgetAlertService, times(1)).evaluate(any());
+    }
+
+    @Test
+    void oneFailingUserDoesNotStopTheOthers() {
+        Budget failing = budget(1L);
+        Budget raised = budget(2L);
+        when(budgetRepository.findAlertDirtyByIdIn(Set.of(1L, 2L), LocalDate.now())).thenReturn(List.of(failing, raised));
+        when(budgetAlertService.evaluate(List.of(failing))).thenThrow(new RuntimeException("deadlock"));
+
+        listener.onBudgetSpendingChanged(new BudgetSpendingChangedEvent(Set.of(1L, 2L)));
+
+        verify(budgetAlertService).evaluate(List.of(raised));
+    }
+
+    @Test
+    void nothingTouchedMeansNoQuery() {
+        listener.onBudgetSpendingChanged(new BudgetSpendingChangedEvent(Set.of()));
+
+        verify(budgetRepository, never()).findAlertDirtyByIdIn(any(), any());
+    }
+
+    // Budget n belongs to user n
+    private static Budget budget(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        Budget budget = new Budget();
+        budget.setId(id);
+        budget.setUser(user);
+        return budget;
+    }
+}
@@ -0,0 +1,153 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.async.AsyncConfig;
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.scheduler.BudgetAlertScheduler;
+import com.petruth.personal_finance_tracker.service.BudgetAlertService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetAlertSchedulerTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    private final BudgetAlertService budgetAlertService = mock(BudgetAlertService.class);
+    private final BudgetRepository budgetRepository = mock(BudgetRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Budget budget1 = dirtyBudget(1L);
+    private final Budget budget2 = dirtyBudget(2L);
+    private final Budget budget3 = dirtyBudget(3L);
+
+    private ThreadPoolTaskExecutor alertExecutor;
+
+    @BeforeEach
+    void setup() {
+        alertExecutor = new AsyncConfig().budgetAlertExecutor(PAGE_SIZE, 10);
+        alertExecutor.initialize();
+
+        when(budgetRepository.findAlertDirtyAfter(eq(0L), eq(LocalDate.now()), any(Limit.class)))
+                .thenReturn(List.of(budget1, budget2));
+        when(budgetRepository.findAlertDirtyAfter(eq(2L), eq(LocalDate.now()), any(Limit.class)))
+                .thenReturn(List.of(budget3));
+        when(budgetAlertService.evaluate(any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertExecutor.shutdown();
+    }
+
+    @Test
+    void pagesThroughDirtyBudgetsByIdAndEvaluatesEachOne() {
+        when(budgetAlertService.evaluate(List.of(budget2))).thenReturn(List.of(status("85.00")));
+        when(budgetAlertService.evaluate(List.of(budget3))).thenReturn(List.of(status("120.00")));
+
+        scheduler().checkBudgetAlerts();
+
+        verify(budgetRepository).findAlertDirtyAfter(eq(0L), eq(LocalDate.now()), any(Limit.class));
+        verify(budgetRepository).findAlertDirtyAfter(eq(2L), eq(LocalDate.now()), any(Limit.class));
+        verify(budgetAlertService).evaluate(List.of(budget1));
+        verify(budgetAlertService).evaluate(List.of(budget2));
+        verify(budgetAlertService).evaluate(List.of(budget3));
+
+        assertThat(meterRegistry.get("budget.alerts.budgets").tag("outcome", "checked").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("budget.alerts.run.progress").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("budget.alerts.run").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evaluatesAUsersBudgetsOfAPageTogether() {
+        Budget secondOfUser3 = dirtyBudget(4L, 3L);
+        when(budgetRepository.findAlertDirtyAfter(eq(2L), eq(LocalDate.now()), any(Limit.class)))
+                .thenReturn(List.of(budget3, secondOfUser3));
+        when(budgetRepository.findAlertDirtyAfter(eq(4L), eq(LocalDate.now()), any(Limit.class)))
+                .thenReturn(List.of());
+
+        scheduler().checkBudgetAlerts();
+
+        verify(budgetAlertService).evaluate(List.of(budget3, secondOfUser3));
+        verify(budgetAlertService, times(3)).evaluate(any());
+        assertThat(meterRegistry.get("budget.alerts.run.progress").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    void evaluatesBudgetsOfAPageInParallel() {
+        // Both budgets of the first page wait for each other, which only succeeds on separate threads
+        CountDownLatch bothStarted = new CountDownLatch(PAGE_SIZE);
+        when(budgetAlertService.evaluate(List.of(budget1))).thenAnswer(inv -> arrive(bothStarted));
+        when(budgetAlertService.evaluate(List.of(budget2))).thenAnswer(inv -> arrive(bothStarted));
+
+        scheduler().checkBudgetAlerts();
+
+        assertThat(bothStarted.getCount()).isZero();
+        assertThat(meterRegistry.get("budget.alerts.budgets").tag("outcome", "checked").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void failuresAreCountedWithoutStoppingTheRun() {
+        when(budgetAlertService.evaluate(List.of(budget1))).thenThrow(new RuntimeException("boom"));
+
+        scheduler().checkBudgetAlerts();
+
+        verify(budgetAlertService, times(1)).evaluate(List.of(budget3));
+        assertThat(meterRegistry.get("budget.alerts.budgets").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("budget.alerts.budgets").tag("outcome", "checked").counter().count()).isEqualTo(2);
+    }
+
+    private BudgetAlertScheduler scheduler() {
+        return new BudgetAlertScheduler(budgetAlertService, budgetRepository, alertExecutor,
+                meterRegistry, PAGE_SIZE);
+    }
+
+    private static List<BudgetWithSpending> arrive(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        assertThat(latch.await(5, TimeUnit.SECONDS)).as("budgets of a page evaluated at once").isTrue();
+        return List.of();
+    }
+
+    // Budget n belongs to user n
+    private static Budget dirtyBudget(long id) {
+        return dirtyBudget(id, id);
+    }
+
+    private static Budget dirtyBudget(long id, long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername("user" + userId);
+        user.setEmail("user" + userId + "@example.com");
+        Budget budget = new Budget();
+        budget.setId(id);
+        budget.setUser(user);
+        return budget;
+    }
+
+    private static BudgetWithSpending status(String percentage) {
+        double percent = Double.parseDouble(percentage);
+        return new BudgetWithSpending(1L, "Food", 1L, new BigDecimal("100.00"), new BigDecimal(percentage),
+                new BigDecimal("100.00").subtract(new BigDecimal(percentage)), percent,
+                percent > 100, percent >= 80, 80,
+                LocalDate.now().minusDays(5), LocalDate.now().plusDays(5));
+    }
+}
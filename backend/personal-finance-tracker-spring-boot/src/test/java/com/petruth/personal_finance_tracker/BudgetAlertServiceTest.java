@@ -0,0 +1,155 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.entity.Budget;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.service.BudgetAlertServiceImpl;
+import com.petruth.personal_finance_tracker.service.BudgetService;
+import com.petruth.personal_finance_tracker.service.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BudgetAlertServiceTest {
+
+    private static final Long BUDGET_ID = 7L;
+
+    private final BudgetService budgetService = mock(BudgetService.class);
+    private final BudgetRepository budgetRepository = mock(BudgetRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BudgetAlertServiceImpl budgetAlertService = service(true);
+
+    private final User user = new User();
+
+    {
+        user.setId(1L);
+        user.setUsername("user1");
+        user.setEmail("user1@example.com");
+    }
+
+    @Test
+    void alertsWhenTheLevelGoesUp() {
+        Budget budget = budget(BUDGET_ID, Budget.AlertLevel.NONE, "85.00");
+        when(budgetRepository.recordAlertEvaluation(eq(BUDGET_ID), eq("NONE"), any(), eq("WARNING"), notNull()))
+                .thenReturn(1);
+
+        assertThat(budgetAlertService.evaluate(List.of(budget))).singleElement().satisfies(
+                alert -> assertThat(alert.getAlertType()).isEqualTo("WARNING"));
+        verify(budgetRepository).recordAlertEvaluation(eq(BUDGET_ID), eq("NONE"), eq(new BigDecimal("85.00")),
+                eq("WARNING"), notNull());
+        verify(emailService).sendBudgetAlert(eq("user1@example.com"), eq("user1"), eq("Food"),
+                anyDouble(), anyDouble(), anyDouble(), eq("WARNING"));
+        assertThat(meterRegistry.get("budget.alerts.sent").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRepeatAnAlertAlreadySent() {
+        Budget budget = budget(BUDGET_ID, Budget.AlertLevel.WARNING, "90.00");
+        when(budgetRepository.recordAlertEvaluation(eq(BUDGET_ID), eq("WARNING"), any(), eq("WARNING"), isNull()))
+                .thenReturn(1);
+
+        assertThat(budgetAlertService.evaluate(List.of(budget))).isEmpty();
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void recordsADropSilently() {
+        Budget budget = budget(BUDGET_ID, Budget.AlertLevel.OVER_BUDGET, "50.00");
+        when(budgetRepository.recordAlertEvaluation(eq(BUDGET_ID), eq("OVER_BUDGET"), any(), eq("NONE"), isNull()))
+                .thenReturn(1);
+
+        assertThat(budgetAlertService.evaluate(List.of(budget))).isEmpty();
+        verify(budgetRepository).recordAlertEvaluation(eq(BUDGET_ID), eq("OVER_BUDGET"), any(), eq("NONE"), isNull());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void sendsNothingWhenAnotherEvaluationGotThereFirst() {
+        Budget budget = budget(BUDGET_ID, Budget.AlertLevel.NONE, "120.00");
+        when(budgetRepository.recordAlertEvaluation(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThat(budgetAlertService.evaluate(List.of(budget))).isEmpty();
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void queuesOneDigestForSeveralRaisedBudgets() {
+        List<Budget> budgets = List.of(budget(1L, Budget.AlertLevel.NONE, "85.00"),
+                budget(2L, Budget.AlertLevel.NONE, "120.00"), budget(3L, Budget.AlertLevel.WARNING, "130.00"));
+        when(budgetRepository.recordAlertEvaluation(any(), any(), any(), any(), any())).thenReturn(1);
+
+        List<BudgetWithSpending> raised = budgetAlertService.evaluate(budgets);
+
+        assertThat(raised).hasSize(3);
+        verify(emailService).sendBudgetAlertDigest("user1@example.com", "user1", raised);
+        verify(emailService, never()).sendBudgetAlert(anyString(), anyString(), anyString(),
+                anyDouble(), anyDouble(), anyDouble(), anyString());
+        assertThat(meterRegistry.get("budget.alerts.sent").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void queuesOneMailPerBudgetWithDigestOff() {
+        List<Budget> budgets = List.of(budget(1L, Budget.AlertLevel.NONE, "120.00"),
+                budget(2L, Budget.AlertLevel.NONE, "120.00"));
+        when(budgetRepository.recordAlertEvaluation(any(), any(), any(), any(), any())).thenReturn(1);
+
+        service(false).evaluate(budgets);
+
+        verify(emailService, times(2)).sendBudgetAlert(eq("user1@example.com"), eq("user1"), eq("Food"),
+                anyDouble(), anyDouble(), anyDouble(), eq("OVER_BUDGET"));
+        verify(emailService, never()).sendBudgetAlertDigest(anyString(), anyString(), any());
+    }
+
+    @Test
+    void failingToQueueTheMailFailsTheEvaluation() {
+        // The exception rolls back the recorded level, so the budget stays dirty and is evaluated again
+        Budget budget = budget(BUDGET_ID, Budget.AlertLevel.NONE, "120.00");
+        when(budgetRepository.recordAlertEvaluation(any(), any(), any(), any(), any())).thenReturn(1);
+        doThrow(new RuntimeException("template error")).when(emailService).sendBudgetAlert(
+                anyString(), anyString(), anyString(), anyDouble(), anyDouble(), anyDouble(), anyString());
+
+        assertThatThrownBy(() -> budgetAlertService.evaluate(List.of(budget))).hasMessage("template error");
+    }
+
+    private BudgetAlertServiceImpl service(boolean digest) {
+        return new BudgetAlertServiceImpl(budgetService, budgetRepository, emailService, meterRegistry, digest);
+    }
+
+    // Budget of 100.00 with an 80% threshold, owned by user1, previously evaluated at the given level
+    private Budget budget(Long id, Budget.AlertLevel lastLevel, String spent) {
+        Budget budget = mock(Budget.class);
+        when(budget.getId()).thenReturn(id);
+        when(budget.getUser()).thenReturn(user);
+        when(budget.getLastAlertLevel()).thenReturn(lastLevel);
+        when(budget.getSpentAmount()).thenReturn(new BigDecimal(spent));
+
+        double percentage = Double.parseDouble(spent);
+        BudgetWithSpending status = new BudgetWithSpending(id, "Food", 1L, new BigDecimal("100.00"),
+                new BigDecimal(spent), new BigDecimal("100.00").subtract(new BigDecimal(spent)), percentage,
+                percentage > 100, percentage >= 80, 80,
+                LocalDate.now().minusDays(5), LocalDate.now().plusDays(5));
+        when(budgetService.calculateBudgetWithSpending(budget)).thenReturn(status);
+        return budget;
+    }
+}
@@ -0,0 +1,288 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
+import com.petruth.personal_finance_tracker.dto.BudgetWithSpending;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.event.BudgetSpendingChangedEvent;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.repository.CategoryRepository;
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.BudgetServiceImpl;
+import com.petruth.personal_finance_tracker.service.BudgetSpendingServiceImpl;
+import com.petruth.personal_finance_tracker.utils.BudgetMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Budgets with spending must cost the same number of statements for 1 budget as for 15:
+ * a single read of the budgets with their categories and stored counters, never one per budget.
+ * The seed rows bypass the services, so the counters start out drifted and are reconciled first.
+ */
+class BudgetSpendingQueryCountTest {
+
+    private static final long SINGLE_BUDGET_USER = 1L;
+    private static final long MANY_BUDGETS_USER = 2L;
+    private static final int MANY_BUDGETS = 15;
+
+    private static EntityManagerFactory emf;
+    private static int reconciled;
+    // Events from the spend counters; without Spring-managed transactions each call publishes its own
+    private static final List<Object> published = new CopyOnWriteArrayList<>();
+    private static final UserCacheGenerations generations = mock(UserCacheGenerations.class);
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        String url = EmbeddedMariaDb.createMigratedDatabase("budget_spending");
+        try (Connection connection = EmbeddedMariaDb.connect(url)) {
+            seed(connection);
+        }
+
+        Properties jpa = new Properties();
+        jpa.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        jpa.put("hibernate.hbm2ddl.auto", "none");
+        jpa.put("hibernate.generate_statistics", "true");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(url, "root", ""));
+        factory.setPackagesToScan("com.petruth.personal_finance_tracker.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaProperties(jpa);
+        factory.afterPropertiesSet();
+        emf = factory.getObject();
+
+        reconciled = inTransaction(tx -> tx.service().reconcileUser(MANY_BUDGETS_USER), true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithBudgets() {
+        Measured single = measure(service -> service.getAllBudgetsWithSpending(SINGLE_BUDGET_USER));
+        Measured many = measure(service -> service.getAllBudgetsWithSpending(MANY_BUDGETS_USER));
+
+        assertThat(single.result()).hasSize(1);
+        assertThat(many.result()).hasSize(MANY_BUDGETS + 1);
+        assertThat(single.statements()).isEqualTo(1);
+        assertThat(many.statements()).isEqualTo(single.statements());
+    }
+
+    @Test
+    void sumsOnlyExpensesInsideTheBudgetPeriod() {
+        List<BudgetWithSpending> budgets = measure(service -> service.getAllBudgetsWithSpending(MANY_BUDGETS_USER)).result();
+
+        List<BudgetWithSpending> active = budgets.stream()
+                .filter(b -> !b.endDate().isBefore(LocalDate.now()))
+                .toList();
+        assertThat(active).hasSize(MANY_BUDGETS);
+        assertThat(active).allSatisfy(b -> assertThat(b.spent()).isEqualByComparingTo("30.00"));
+
+        BudgetWithSpending expired = budgets.stream()
+                .filter(b -> b.endDate().isBefore(LocalDate.now()))
+                .findFirst().orElseThrow();
+        assertThat(expired.spent()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void reconciliationRepairsOnlyDriftedCounters() {
+        // Every active budget of the seeded user had expenses the counter did not know about
+        assertThat(reconciled).isEqualTo(MANY_BUDGETS);
+        assertThat(inTransaction(tx -> tx.service().reconcileUser(MANY_BUDGETS_USER), true)).isZero();
+        assertThat(inTransaction(tx -> tx.service().reconcileUser(SINGLE_BUDGET_USER), true)).isZero();
+
+        // Only the repair that changed rows invalidates the user's cached budgets and ETags
+        verify(generations, times(1)).bump("budgets", MANY_BUDGETS_USER);
+        verify(generations, never()).bump("budgets", SINGLE_BUDGET_USER);
+    }
+
+    @Test
+    void transactionWritesAdjustOnlyMatchingBudgets() {
+        LocalDate today = LocalDate.now();
+        TransactionSnapshot inPeriod = expense(1L, "10.00", today.minusDays(1).atTime(9, 0));
+        TransactionSnapshot raised = expense(1L, "25.00", today.minusDays(1).atTime(9, 0));
+        TransactionSnapshot movedOut = expense(1L, "25.00", today.plusDays(11).atStartOfDay());
+
+        // Rolled back, so the other tests keep seeing the seeded totals
+        published.clear();
+        BigDecimal[] spent = inTransaction(tx -> {
+            tx.service().applyChange(inPeriod, raised);
+            BigDecimal afterRaise = tx.spentOf(1L);
+            tx.service().applyChange(raised, movedOut);
+            BigDecimal afterMove = tx.spentOf(1L);
+            tx.service().applyChange(null, expense(2L, "5.00", today.atTime(12, 0)));
+            return new BigDecimal[]{afterRaise, afterMove, tx.spentOf(2L)};
+        }, false);
+
+        assertThat(spent[0]).isEqualByComparingTo("45.00");
+        assertThat(spent[1]).isEqualByComparingTo("20.00");
+        assertThat(spent[2]).isEqualByComparingTo("35.00");
+
+        // Budgets are numbered in seed order: user 1's, then user 2's per category
+        assertThat(published).hasSize(3);
+        assertThat(published).allSatisfy(event -> assertThat(event).isInstanceOf(BudgetSpendingChangedEvent.class));
+        assertThat(published.stream().flatMap(event -> ((BudgetSpendingChangedEvent) event).budgetIds().stream()))
+                .containsExactly(2L, 2L, 3L);
+    }
+
+    private static Measured measure(Function<BudgetServiceImpl, List<BudgetWithSpending>> call) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            BudgetRepository budgetRepository = new JpaRepositoryFactory(em).getRepository(BudgetRepository.class);
+            BudgetServiceImpl service = new BudgetServiceImpl(budgetRepository, mock(UserRepository.class),
+                    mock(CategoryRepository.class), new BudgetSpendingServiceImpl(budgetRepository, published::add,
+                    mock(UserCacheGenerations.class)),
+                    mock(BudgetMapper.class), mock(UserCacheGenerations.class));
+
+            Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+            em.getTransaction().begin();
+            statistics.clear();
+            List<BudgetWithSpending> result = call.apply(service);
+            long statements = statistics.getPrepareStatementCount();
+            em.getTransaction().commit();
+            return new Measured(result, statements);
+        } finally {
+            em.close();
+        }
+    }
+
+    private record Measured(List<BudgetWithSpending> result, long statements) {
+    }
+
+    private static <T> T inTransaction(Function<Tx, T> call, boolean commit) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            BudgetRepository budgetRepository = new JpaRepositoryFactory(em).getRepository(BudgetRepository.class);
+            em.getTransaction().begin();
+            T result = call.apply(new Tx(new BudgetSpendingServiceImpl(budgetRepository, published::add,
+                    generations), em));
+            if (commit) {
+                em.getTransaction().commit();
+            } else {
+                em.getTransaction().rollback();
+            }
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    private record Tx(BudgetSpendingServiceImpl service, EntityManager em) {
+
+        // Counter of the many-budgets user's active budget for a category
+        BigDecimal spentOf(long categoryId) {
+            return (BigDecimal) em.createNativeQuery(
+                            "SELECT spent_amount FROM budgets WHERE user_id = ?1 AND category_id = ?2 AND end_date >= CURDATE()")
+                    .setParameter(1, MANY_BUDGETS_USER)
+                    .setParameter(2, categoryId)
+                    .getSingleResult();
+        }
+    }
+
+    private static TransactionSnapshot expense(long categoryId, String amount, LocalDateTime date) {
+        return new TransactionSnapshot(null, MANY_BUDGETS_USER, categoryId, Transaction.TransactionType.EXPENSE,
+                new BigDecimal(amount), date);
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        LocalDate today = LocalDate.now();
+
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (id, username, email, email_verified) VALUES (?, ?, ?, 1)");
+             PreparedStatement categories = connection.prepareStatement(
+                     "INSERT INTO categories (id, name) VALUES (?, ?)");
+             PreparedStatement budgets = connection.prepareStatement(
+                     "INSERT INTO budgets (name, amount, user_id, category_id, start_date, end_date, " +
+                             "alert_threshold, is_active) VALUES (?, 500, ?, ?, ?, ?, 80, 1)");
+             PreparedStatement transactions = connection.prepareStatement(
+                     "INSERT INTO transactions (id, amount, type, description, date, user_id, category_id) " +
+                             "VALUES (?, ?, ?, 'seed', ?, ?, ?)")) {
+
+            for (long u : new long[]{SINGLE_BUDGET_USER, MANY_BUDGETS_USER}) {
+                users.setLong(1, u);
+                users.setString(2, "user" + u);
+                users.setString(3, "user" + u + "@example.com");
+                users.addBatch();
+            }
+            users.executeBatch();
+
+            for (int c = 1; c <= MANY_BUDGETS; c++) {
+                categories.setLong(1, c);
+                categories.setString(2, "Category " + c);
+                categories.addBatch();
+            }
+            categories.executeBatch();
+
+            addBudget(budgets, SINGLE_BUDGET_USER, 1, today.minusDays(10), today.plusDays(10));
+            for (int c = 1; c <= MANY_BUDGETS; c++) {
+                addBudget(budgets, MANY_BUDGETS_USER, c, today.minusDays(10), today.plusDays(10));
+            }
+            // Expired budget: reported with zero spending
+            addBudget(budgets, MANY_BUDGETS_USER, 1, today.minusMonths(3), today.minusMonths(2));
+            budgets.executeBatch();
+
+            long id = 1;
+            for (int c = 1; c <= MANY_BUDGETS; c++) {
+                // Counted: two expenses inside the period, the last one on the final day
+                addTransaction(transactions, id++, "10.00", "EXPENSE", today.minusDays(1).atTime(9, 0), c);
+                addTransaction(transactions, id++, "20.00", "EXPENSE", today.plusDays(10).atTime(23, 59, 59), c);
+                // Ignored: income, and expenses outside the period
+                addTransaction(transactions, id++, "100.00", "INCOME", today.minusDays(1).atTime(9, 0), c);
+                addTransaction(transactions, id++, "40.00", "EXPENSE", today.minusDays(11).atTime(23, 0), c);
+                addTransaction(transactions, id++, "40.00", "EXPENSE", today.plusDays(11).atStartOfDay(), c);
+            }
+            transactions.executeBatch();
+        }
+    }
+
+    private static void addBudget(PreparedStatement budgets, long userId, long categoryId,
+                                  LocalDate start, LocalDate end) throws SQLException {
+        budgets.setString(1, "Budget " + categoryId);
+        budgets.setLong(2, userId);
+        budgets.setLong(3, categoryId);
+        budgets.setDate(4, Date.valueOf(start));
+        budgets.setDate(5, Date.valueOf(end));
+        budgets.addBatch();
+    }
+
+    private static void addTransaction(PreparedStatement transactions, long id, String amount, String type,
+                                       LocalDateTime date, long categoryId) throws SQLException {
+        transactions.setLong(1, id);
+        transactions.setBigDecimal(2, new BigDecimal(amount));
+        transactions.setString(3, type);
+        transactions.setTimestamp(4, Timestamp.valueOf(date));
+        transactions.setLong(5, MANY_BUDGETS_USER);
+        transactions.setLong(6, categoryId);
+        transactions.addBatch();
+    }
+}
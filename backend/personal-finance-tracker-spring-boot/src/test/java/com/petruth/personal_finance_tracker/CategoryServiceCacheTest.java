@@ -1,5 +1,6 @@
 package com.petruth.personal_finance_tracker;
 
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
 import com.petruth.personal_finance_tracker.dto.CategoryDTO;
 import com.petruth.personal_finance_tracker.entity.Category;
 import com.petruth.personal_finance_tracker.repository.CategoryRepository;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
@@ -33,6 +35,9 @@ class CategoryServiceCacheTest {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private UserCacheGenerations userCacheGenerations;
+
     private final Long userId = 1L;
 
     @BeforeEach
@@ -64,13 +69,62 @@ class CategoryServiceCacheTest {
     @Test
     void shouldEvictCacheWhenCategoryIsSaved() {
         categoryService.getAllCategoriesForUser(userId); // populate cache
+        Cache cache = Objects.requireNonNull(cacheManager.getCache("categories"));
+        assertThat(cache.get(categoriesKey())).isNotNull();
 
         CategoryDTO dto = new CategoryDTO();
         dto.setUserId(1L);
         dto.setName("Test Category");
         categoryService.saveFromDTO(dto);
 
+        // cheia include generația; după salvare generația avansează, deci cheia curentă nu mai are intrare
+        assertThat(cache.get(categoriesKey())).isNull();
+
+        // următoarea citire pentru același utilizator trebuie să ajungă din nou în repository
+        categoryService.getAllCategoriesForUser(userId);
+        verify(categoryRepository, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    void shouldKeepOtherUsersCachedWhenCategoryIsSaved() {
+        Long otherUserId = 2L;
+        categoryService.getAllCategoriesForUser(otherUserId); // populate cache for another user
+
+        CategoryDTO dto = new CategoryDTO();
+        dto.setUserId(userId);
+        dto.setName("Test Category");
+        categoryService.saveFromDTO(dto);
+
+        // cache-ul celuilalt utilizator nu este afectat
+        categoryService.getAllCategoriesForUser(otherUserId);
+        verify(categoryRepository, times(1)).findByUserId(otherUserId);
+    }
+
+    @Test
+    void shouldCacheDictionaryUntilCategoryIsSaved() {
+        Category groceries = new Category();
+        groceries.setId(3L);
+        groceries.setName("Groceries");
+        when(categoryRepository.findByUserIsNull()).thenReturn(List.of(groceries));
+        when(categoryRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
+
+        // two imports in a row load the categories once
+        assertThat(categoryService.getDictionaryForUser(userId).idOf("groceries")).isEqualTo(3L);
+        assertThat(categoryService.getDictionaryForUser(userId).idOf("GROCERIES")).isEqualTo(3L);
+        verify(categoryRepository, times(1)).findByUserIsNull();
+
+        CategoryDTO dto = new CategoryDTO();
+        dto.setUserId(userId);
+        dto.setName("Test Category");
+        categoryService.saveFromDTO(dto);
+
+        // a category write means the next import sees the new set
+        categoryService.getDictionaryForUser(userId);
+        verify(categoryRepository, times(2)).findByUserIsNull();
+    }
 
-        assertThat(Objects.requireNonNull(cacheManager.getCache("categories")).get(userId)).isNull();
+    // Same key as CategoryServiceImpl.getAllCategoriesForUser
+    private String categoriesKey() {
+        return "user:" + userId + ":" + userCacheGenerations.current("categories", userId);
     }
 }
@@ -0,0 +1,174 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.CategoryDictionary;
+import com.petruth.personal_finance_tracker.entity.Category;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.ImportedFileRepository;
+import com.petruth.personal_finance_tracker.service.CategoryService;
+import com.petruth.personal_finance_tracker.service.CsvImportService;
+import com.petruth.personal_finance_tracker.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CsvImportServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final ImportedFileRepository importedFileRepository = mock(ImportedFileRepository.class);
+    private final CsvImportService csvImportService =
+            new CsvImportService(transactionService, categoryService, importedFileRepository, CHUNK_SIZE);
+
+    private final User user = new User();
+
+    @BeforeEach
+    void setup() {
+        user.setId(1L);
+        when(categoryService.getDictionaryForUser(1L)).thenReturn(CategoryDictionary.of(
+                List.of(category(20L, "groceries")),
+                List.of(category(10L, "Groceries"), category(11L, "Salary"), category(12L, "Other Expenses"))));
+        when(categoryService.getReference(anyLong())).thenAnswer(inv -> category(inv.getArgument(0), null));
+        when(importedFileRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(transactionService.importChunk(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+    }
+
+    @Test
+    void writesRowsInChunksAndInvalidatesCachesOnce() throws Exception {
+        CsvImportService.ImportResult result = importCsv("""
+                Date,Amount,Description
+                01.03.2025,-12.50,Lidl groceries
+                02.03.2025,-40,Uber ride
+                03.03.2025,2500,Salary March
+                04.03.2025,-9.99,Netflix
+                05.03.2025,-60,Electric bill
+                """);
+
+        assertThat(result.getSuccessCount()).isEqualTo(5);
+        assertThat(result.getErrors()).isEmpty();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(3)).importChunk(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+        verify(transactionService, never()).save(any());
+        verify(transactionService, times(1)).finishImport(1L);
+    }
+
+    @Test
+    void resolvesHeadersIgnoringCaseAndOrder() throws Exception {
+        CsvImportService.ImportResult result = importCsv("""
+                description,AMOUNT,date
+                Salary March,2500,03.03.2025
+                """);
+
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).importChunk(chunk.capture());
+        Transaction transaction = chunk.getValue().get(0);
+        assertThat(transaction.getDescription()).isEqualTo("Salary March");
+        assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.INCOME);
+        assertThat(transaction.getSource()).isEqualTo("csv_import");
+    }
+
+    @Test
+    void categorizesFromTheDictionaryLoadedOnceForTheFile() throws Exception {
+        importCsv("""
+                Date,Amount,Description
+                01.03.2025,-12.50,Lidl groceries
+                02.03.2025,-40,Uber ride
+                03.03.2025,2500,Salary March
+                """);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(2)).importChunk(chunks.capture());
+        // The user's own "groceries" shadows the predefined one; there is no predefined "Transportation"
+        assertThat(chunks.getAllValues().stream().flatMap(List::stream))
+                .extracting(t -> t.getCategory() == null ? null : t.getCategory().getId())
+                .containsExactly(20L, null, 11L);
+        verify(categoryService, times(1)).getDictionaryForUser(1L);
+    }
+
+    @Test
+    void readsDecimalsAfterASampleOfWholeAmounts() throws Exception {
+        StringBuilder csv = new StringBuilder("Date,Amount,Description\n");
+        for (int i = 0; i < 60; i++) {
+            csv.append("01.03.2025,-40,Uber ride\n");
+        }
+        csv.append("02.03.2025,-12.50,Lidl groceries\n");
+
+        CsvImportService.ImportResult result = importCsv(csv.toString());
+
+        assertThat(result.getErrors()).isEmpty();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(31)).importChunk(chunks.capture());
+        assertThat(chunks.getValue().get(0).getAmount()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void reportsBadRowsAndFailedChunksWithoutStopping() throws Exception {
+        when(transactionService.importChunk(anyList()))
+                .thenThrow(new RuntimeException("deadlock"))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        CsvImportService.ImportResult result = importCsv("""
+                Date,Amount,Description
+                01.03.2025,-12.50,Lidl groceries
+                not a date,-40,Uber ride
+                03.03.2025,2500,Salary March
+                04.03.2025,-9.99,Netflix
+                """);
+
+        // Rows 2-4 hold the first chunk (row 3 failed to parse); row 5 is the second chunk
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+        assertThat(result.getErrors()).containsExactly(
+                "Row 3: Invalid date format: not a date",
+                "Rows 2-4: deadlock");
+        verify(transactionService).finishImport(1L);
+    }
+
+    @Test
+    void nothingImportedLeavesCachesAlone() throws Exception {
+        CsvImportService.ImportResult result = importCsv("""
+                Date,Amount,Description
+                not a date,-40,Uber ride
+                """);
+
+        assertThat(result.getSuccessCount()).isZero();
+        verify(transactionService, never()).importChunk(anyList());
+        verify(transactionService, never()).finishImport(any());
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private CsvImportService.ImportResult importCsv(String csv) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        return csvImportService.importFromCsv(file, user, new CsvImportService.CsvImportConfig());
+    }
+}
@@ -0,0 +1,156 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.async.AsyncConfig;
+import com.petruth.personal_finance_tracker.dto.AccountStatsDTO;
+import com.petruth.personal_finance_tracker.dto.CategoryDTO;
+import com.petruth.personal_finance_tracker.dto.DashboardDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionCursorPage;
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.exception.InvalidRequestException;
+import com.petruth.personal_finance_tracker.service.BudgetService;
+import com.petruth.personal_finance_tracker.service.CategoryService;
+import com.petruth.personal_finance_tracker.service.DashboardServiceImpl;
+import com.petruth.personal_finance_tracker.service.ProfileService;
+import com.petruth.personal_finance_tracker.service.SpendingRollupService;
+import com.petruth.personal_finance_tracker.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final BudgetService budgetService = mock(BudgetService.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final SpendingRollupService spendingRollupService = mock(SpendingRollupService.class);
+    private final ProfileService profileService = mock(ProfileService.class);
+
+    private ThreadPoolTaskExecutor executor;
+    private DashboardServiceImpl dashboardService;
+
+    @BeforeEach
+    void setup() {
+        executor = new AsyncConfig().dashboardExecutor(5, 10);
+        executor.initialize();
+        dashboardService = new DashboardServiceImpl(categoryService, budgetService, transactionService,
+                spendingRollupService, profileService, executor, Duration.ofSeconds(5));
+
+        when(budgetService.getAllBudgetsWithSpending(1L)).thenReturn(List.of());
+        when(spendingRollupService.getMonthlyTotals(eq(1L), any(), any())).thenReturn(List.of());
+        when(profileService.getAccountStats(1L)).thenReturn(new AccountStatsDTO());
+        when(transactionService.findByUserIdAfterCursor(eq(1), isNull(), isNull(), isNull(), isNull(),
+                isNull(), isNull(), isNull(), eq(10), eq("desc")))
+                .thenReturn(new TransactionCursorPage(List.of(new TransactionDTO()), 10, false, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void runsPartsConcurrentlyAndCombinesThem() {
+        // Every part waits until all five have started, which only succeeds if they run in parallel
+        CountDownLatch allStarted = new CountDownLatch(5);
+        when(categoryService.getAllCategoriesForUser(1L)).thenAnswer(inv -> arrive(allStarted, List.of(new CategoryDTO())));
+        when(budgetService.getAllBudgetsWithSpending(1L)).thenAnswer(inv -> arrive(allStarted, List.of()));
+        when(spendingRollupService.getMonthlyTotals(eq(1L), any(), any())).thenAnswer(inv -> arrive(allStarted, List.of()));
+        when(profileService.getAccountStats(1L)).thenAnswer(inv -> arrive(allStarted, new AccountStatsDTO()));
+        when(transactionService.findByUserIdAfterCursor(anyInt(), any(), any(), any(), any(), any(), any(), any(), anyInt(), any()))
+                .thenAnswer(inv -> arrive(allStarted,
+                        new TransactionCursorPage(List.of(new TransactionDTO(), new TransactionDTO()), 10, false, null)));
+
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, 10, 12);
+
+        assertThat(dashboard.categories()).hasSize(1);
+        assertThat(dashboard.recentTransactions()).hasSize(2);
+        assertThat(dashboard.budgets()).isEmpty();
+        assertThat(dashboard.monthlyTotals()).isEmpty();
+        assertThat(dashboard.accountStats()).isNotNull();
+    }
+
+    @Test
+    void partsSeeTheCallersAuthentication() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("alice", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        when(categoryService.getAllCategoriesForUser(1L)).thenAnswer(inv -> {
+            seen.add(SecurityContextHolder.getContext().getAuthentication());
+            return List.of();
+        });
+
+        dashboardService.getDashboard(1L, 10, 12);
+
+        assertThat(seen).containsExactly(authentication);
+    }
+
+    @Test
+    void failureOfOnePartIsRethrownAsIs() {
+        when(categoryService.getAllCategoriesForUser(1L)).thenReturn(List.of());
+        when(profileService.getAccountStats(anyLong())).thenThrow(new RuntimeException("User not found"));
+
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, 10, 12))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("User not found");
+    }
+
+    @Test
+    void timeoutCancelsThePartsStillWaitingForAThread() {
+        // One thread: categories occupies it past the timeout, the other four wait in the queue
+        ThreadPoolTaskExecutor singleThread = new AsyncConfig().dashboardExecutor(1, 10);
+        singleThread.initialize();
+        DashboardServiceImpl slowDashboard = new DashboardServiceImpl(categoryService, budgetService,
+                transactionService, spendingRollupService, profileService, singleThread, Duration.ofMillis(200));
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(categoryService.getAllCategoriesForUser(1L)).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        assertThatThrownBy(() -> slowDashboard.getDashboard(1L, 10, 12))
+                .hasMessage("Loading the dashboard timed out");
+        release.countDown();
+        singleThread.shutdown();
+
+        verifyNoInteractions(budgetService, transactionService, spendingRollupService, profileService);
+    }
+
+    @Test
+    void rejectsOversizedRequests() {
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, 500, 12))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, 10, 120))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private static <T> T arrive(CountDownLatch latch, T result) throws InterruptedException {
+        latch.countDown();
+        assertThat(latch.await(5, TimeUnit.SECONDS)).as("all dashboard parts running at once").isTrue();
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.utils.DateScanner;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateScannerTest {
+
+    private final DateScanner scanner = DateScanner.of(DateScanner.Layout.DAY_MONTH_YEAR);
+
+    @Test
+    void shouldReadNumericLayoutsWithAnySeparator() {
+        assertThat(scanner.scan("4.03.2025")).isEqualTo(LocalDate.of(2025, 3, 4));
+        assertThat(scanner.scan("04/03/2025")).isEqualTo(LocalDate.of(2025, 3, 4));
+        assertThat(scanner.scan("04-03-2025")).isEqualTo(LocalDate.of(2025, 3, 4));
+        assertThat(scanner.scan("2025-03-04")).isEqualTo(LocalDate.of(2025, 3, 4));
+    }
+
+    @Test
+    void shouldReadRomanianMonthNamesAndIgnoreTime() {
+        assertThat(scanner.scan("4 nov. 2025")).isEqualTo(LocalDate.of(2025, 11, 4));
+        assertThat(scanner.scan("1 Noiembrie 2025")).isEqualTo(LocalDate.of(2025, 11, 1));
+        assertThat(scanner.scan(" 04.03.2025 14:30:00")).isEqualTo(LocalDate.of(2025, 3, 4));
+    }
+
+    @Test
+    void shouldReturnNullInsteadOfThrowing() {
+        assertThat(scanner.scan("31.02.2025")).isNull();
+        assertThat(scanner.scan("04.03/2025")).isNull();
+        assertThat(scanner.scan("04.03.20251")).isNull();
+        assertThat(scanner.scan("4 brumar 2025")).isNull();
+        assertThat(scanner.scan("")).isNull();
+        assertThat(scanner.scan(null)).isNull();
+    }
+
+    @Test
+    void shouldInferTheLayoutMostSamplesUse() {
+        assertThat(DateScanner.infer(List.of("2025-03-04", "2025-03-05", "bad")).layout())
+                .isEqualTo(DateScanner.Layout.YEAR_MONTH_DAY);
+        assertThat(DateScanner.infer(List.of("4 mar 2025")).layout())
+                .isEqualTo(DateScanner.Layout.DAY_MONTH_NAME_YEAR);
+        assertThat(DateScanner.infer(List.of()).layout())
+                .isEqualTo(DateScanner.Layout.DAY_MONTH_YEAR);
+    }
+}
@@ -0,0 +1,185 @@
+package com.petruth.personal_finance_tracker;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.petruth.personal_finance_tracker.entity.EmailOutboxMessage;
+import com.petruth.personal_finance_tracker.repository.EmailOutboxRepository;
+import com.petruth.personal_finance_tracker.service.EmailOutboxServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The outbox against the real schema and a real SMTP server: a batch goes out over one send call,
+ * and failed deliveries are kept for a later attempt instead of being lost.
+ */
+class EmailOutboxTest {
+
+    private static String url;
+    private static EntityManagerFactory emf;
+    private static EmailOutboxRepository repository;
+    private static TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GreenMail greenMail;
+
+    @BeforeAll
+    static void setup() {
+        url = EmbeddedMariaDb.createMigratedDatabase("email_outbox");
+
+        Properties jpa = new Properties();
+        jpa.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        jpa.put("hibernate.hbm2ddl.auto", "none");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(url, "root", ""));
+        factory.setPackagesToScan("com.petruth.personal_finance_tracker.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaProperties(jpa);
+        factory.afterPropertiesSet();
+        emf = factory.getObject();
+
+        repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(emf))
+                .getRepository(EmailOutboxRepository.class);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(emf));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        emf.close();
+    }
+
+    @BeforeEach
+    void startSmtp() throws SQLException {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        try (Connection connection = EmbeddedMariaDb.connect(url)) {
+            connection.createStatement().executeUpdate("DELETE FROM email_outbox");
+        }
+    }
+
+    @AfterEach
+    void stopSmtp() {
+        greenMail.stop();
+    }
+
+    @Test
+    void sendsABatchOverOneConnectionAndMarksItSent() {
+        JavaMailSenderImpl mailSender = spy(mailSender(greenMail.getSmtp().getPort()));
+        EmailOutboxServiceImpl outbox = outbox(mailSender);
+        for (int i = 1; i <= 3; i++) {
+            enqueue(outbox, "user" + i + "@example.com");
+        }
+
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isEqualTo(3);
+        assertThat(outbox.dispatchBatch()).isEqualTo(3);
+
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(repository.findAll()).allSatisfy(message -> {
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getSentAt()).isNotNull();
+        });
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "sent").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("email.outbox.latency").timer().count()).isEqualTo(3);
+
+        // Nothing left to claim
+        assertThat(outbox.dispatchBatch()).isZero();
+    }
+
+    @Test
+    void keepsMessagesForRetryWhenSmtpIsDown() throws IOException {
+        EmailOutboxServiceImpl outbox = outbox(mailSender(closedPort()));
+        enqueue(outbox, "user1@example.com");
+        enqueue(outbox, "user2@example.com");
+
+        LocalDateTime beforeDispatch = LocalDateTime.now();
+        assertThat(outbox.dispatchBatch()).isEqualTo(2);
+
+        List<EmailOutboxMessage> messages = repository.findAll();
+        assertThat(messages).allSatisfy(message -> {
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.Status.PENDING);
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getLastError()).isNotBlank();
+            assertThat(message.getNextAttemptAt()).isAfter(beforeDispatch.plusSeconds(20));
+        });
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "retry").counter().count()).isEqualTo(2);
+
+        // Backing off: not due again yet, but still counted as pending
+        assertThat(outbox.dispatchBatch()).isZero();
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() throws IOException {
+        EmailOutboxServiceImpl outbox = outbox(mailSender(closedPort()), 1);
+        enqueue(outbox, "user1@example.com");
+
+        assertThat(outbox.dispatchBatch()).isEqualTo(1);
+
+        EmailOutboxMessage message = repository.findAll().get(0);
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.Status.FAILED);
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isZero();
+    }
+
+    private EmailOutboxServiceImpl outbox(JavaMailSenderImpl mailSender) {
+        return outbox(mailSender, 8);
+    }
+
+    private EmailOutboxServiceImpl outbox(JavaMailSenderImpl mailSender, int maxAttempts) {
+        return new EmailOutboxServiceImpl(repository, mailSender, new JpaTransactionManager(emf), meterRegistry,
+                "noreply@example.com", 50, maxAttempts, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                Duration.ofHours(1), Duration.ofDays(7));
+    }
+
+    // Outside Spring there is no @Transactional proxy, so enqueue gets the caller's transaction explicitly
+    private static void enqueue(EmailOutboxServiceImpl outbox, String recipient) {
+        transactionTemplate.executeWithoutResult(status ->
+                outbox.enqueue(recipient, "Budget alert", "<p>Hello</p>", true));
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    // A port nothing listens on, so every connection attempt is refused
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
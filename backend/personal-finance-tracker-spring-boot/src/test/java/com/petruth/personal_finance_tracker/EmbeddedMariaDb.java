@@ -0,0 +1,72 @@
+package com.petruth.personal_finance_tracker;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * One embedded MariaDB per test JVM. Each caller gets its own database with the
+ * production migrations from db/migration applied, so tests exercise the real schema and indexes.
+ */
+final class EmbeddedMariaDb {
+
+    private static DB db;
+    private static int port;
+
+    private EmbeddedMariaDb() {
+    }
+
+    static synchronized String createMigratedDatabase(String name) {
+        String url = createDatabase(name);
+        flyway(url).load().migrate();
+        return url;
+    }
+
+    // Migrated only up to version, so a test can seed pre-existing rows and then run the rest
+    static synchronized String createDatabaseAt(String name, String version) {
+        String url = createDatabase(name);
+        flyway(url).target(version).load().migrate();
+        return url;
+    }
+
+    static void migrate(String url) {
+        flyway(url).load().migrate();
+    }
+
+    private static String createDatabase(String name) {
+        try {
+            if (db == null) {
+                DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+                builder.setPort(0); // any free port
+                DBConfiguration config = builder.build();
+                db = DB.newEmbeddedDB(config);
+                db.start();
+                port = config.getPort();
+            }
+            db.createDB(name);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start embedded MariaDB", e);
+        }
+        return jdbcUrl(name);
+    }
+
+    private static FluentConfiguration flyway(String url) {
+        return Flyway.configure()
+                .dataSource(url, "root", "")
+                .locations("classpath:db/migration");
+    }
+
+    static String jdbcUrl(String name) {
+        return "jdbc:mysql://localhost:" + port + "/" + name;
+    }
+
+    static Connection connect(String url) throws SQLException {
+        return DriverManager.getConnection(url, "root", "");
+    }
+}
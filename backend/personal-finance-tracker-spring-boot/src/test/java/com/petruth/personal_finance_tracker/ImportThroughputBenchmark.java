@@ -0,0 +1,152 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.entity.Category;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.CategoryRepository;
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.TransactionService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows/second for a 10k-row import through TransactionService.importChunk, i.e. the same path as a
+ * CSV import including rollups, search terms and budget counters, with the old persistence settings
+ * (IDENTITY ids, no JDBC batching) versus the current ones (pooled ids, batch_size 50,
+ * ordered inserts, rewriteBatchedStatements).
+ *
+ * Not part of the default build: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ImportThroughputBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int CHUNK = 500;
+
+    private static String url;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        url = EmbeddedMariaDb.createMigratedDatabase("import_benchmark");
+
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO users (id, username, email, email_verified) " +
+                    "VALUES (1, 'bench', 'bench@example.com', 1)");
+            statement.executeUpdate("INSERT INTO categories (id, name) VALUES (1, 'Food')");
+            // Every imported expense lands in this budget, so its counter is updated per chunk
+            statement.executeUpdate("INSERT INTO budgets (name, amount, user_id, category_id, start_date, end_date, " +
+                    "alert_threshold, is_active) VALUES ('Food', 1000, 1, 1, '2024-01-01', '2024-12-31', 80, 1)");
+        }
+    }
+
+    @Test
+    void importThroughputBeforeAndAfter() throws SQLException {
+        double before;
+        try (ConfigurableApplicationContext context = application(false)) {
+            // warm-up so class loading and JIT do not count against the measured run
+            runImport(context, 1_000);
+            before = runImport(context, ROWS);
+        }
+
+        double after;
+        try (ConfigurableApplicationContext context = application(true)) {
+            runImport(context, 1_000);
+            after = runImport(context, ROWS);
+        }
+
+        System.out.printf("%nImport of %,d rows through importChunk%n", ROWS);
+        System.out.printf("  before (IDENTITY, no batching):        %,10.0f rows/s%n", before);
+        System.out.printf("  after  (pooled ids, batched, rewrite): %,10.0f rows/s%n", after);
+        System.out.printf("  speed-up: %.1fx%n%n", after / before);
+
+        assertThat(count("SELECT COUNT(*) FROM transactions")).isEqualTo(2L * ROWS + 2_000);
+        // "imported", "row" and the (at least three-digit) row number for each transaction
+        assertThat(count("SELECT COUNT(*) FROM transaction_search_terms")).isEqualTo(3L * (2L * ROWS + 2_000));
+        assertThat(count("SELECT SUM(transaction_count) FROM monthly_category_rollups")).isEqualTo(2L * ROWS + 2_000);
+    }
+
+    private static double runImport(ConfigurableApplicationContext context, int rows) {
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        User user = context.getBean(UserRepository.class).findById(1L).orElseThrow();
+        Category category = context.getBean(CategoryRepository.class).findById(1L).orElseThrow();
+
+        long start = System.nanoTime();
+
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Transaction> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction(null, BigDecimal.valueOf(10 + i % 90),
+                    i % 5 == 0 ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE,
+                    "Imported row " + (100 + i), date.plusMinutes(i), user, category);
+            transaction.setSource("csv_import");
+            chunk.add(transaction);
+
+            // same chunking as CsvImportService: one database transaction per chunk
+            if (chunk.size() == CHUNK) {
+                transactionService.importChunk(chunk);
+                chunk = new ArrayList<>(CHUNK);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            transactionService.importChunk(chunk);
+        }
+        transactionService.finishImport(user.getId());
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return rows / seconds;
+    }
+
+    private static ConfigurableApplicationContext application(boolean batched) throws SQLException {
+        if (batched) {
+            // the IDENTITY runs moved past the pooled range; start above them like the V4 migration does
+            try (Connection connection = EmbeddedMariaDb.connect(url);
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE transaction_seq SET next_val = " +
+                        "(SELECT COALESCE(MAX(id), 0) + 51 FROM transactions)");
+            }
+        }
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(PersonalFinanceTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=root",
+                        "spring.datasource.password=",
+                        "jwt.secret.key=YmVuY2htYXJrLW9ubHktc2VjcmV0LWtleS1ub3QtdXNlZC1mb3ItYW55LXRva2Vucw==",
+                        "spring.mail.username=bench",
+                        "spring.mail.password=bench");
+        if (!batched) {
+            builder.properties(
+                    "spring.jpa.mapping-resources=benchmark/identity-orm.xml",
+                    "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                    "spring.jpa.properties.hibernate.order_inserts=false",
+                    "spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=false");
+        }
+        return builder.run();
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
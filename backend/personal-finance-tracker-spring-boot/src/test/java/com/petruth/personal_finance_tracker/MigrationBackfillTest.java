@@ -0,0 +1,116 @@
+package com.petruth.personal_finance_tracker;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds rows into a database at the baseline schema, then runs the remaining migrations,
+ * the way an existing installation upgrades, and checks the derived tables are backfilled.
+ */
+class MigrationBackfillTest {
+
+    private static String url;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        url = EmbeddedMariaDb.createDatabaseAt("migration_backfill", "1");
+
+        try (Connection connection = EmbeddedMariaDb.connect(url)) {
+            seed(connection);
+        }
+        EmbeddedMariaDb.migrate(url);
+    }
+
+    @Test
+    void rollupsMatchTheExistingTransactions() throws SQLException {
+        assertThat(count("SELECT COUNT(*) FROM monthly_category_rollups")).isEqualTo(4);
+        assertThat(amount("SELECT total_amount FROM monthly_category_rollups " +
+                "WHERE user_id = 1 AND category_id = 1 AND type = 'EXPENSE' AND month_start = '2024-01-01'"))
+                .isEqualByComparingTo("200.00");
+        // Uncategorized rows are bucketed under category 0
+        assertThat(count("SELECT SUM(transaction_count) FROM monthly_category_rollups " +
+                "WHERE user_id = 1 AND category_id = 0 AND month_start = '2024-03-01'")).isEqualTo(2);
+    }
+
+    @Test
+    void rollupsGiveTheSameBalanceAsTheTransactions() throws SQLException {
+        // Balance checkpoints are built from the rollups, so they must agree with the raw rows
+        BigDecimal fromRollups = amount("SELECT SUM(CASE WHEN type = 'INCOME' THEN total_amount ELSE -total_amount END) " +
+                "FROM monthly_category_rollups WHERE user_id = 1 AND month_start < '2024-04-01'");
+        BigDecimal fromTransactions = amount("SELECT SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END) " +
+                "FROM transactions WHERE user_id = 1 AND date < '2024-04-01'");
+
+        assertThat(fromRollups).isEqualByComparingTo(fromTransactions).isEqualByComparingTo("450.00");
+        assertThat(count("SELECT COUNT(*) FROM balance_checkpoints")).isZero();
+    }
+
+    @Test
+    void searchTermsAreIndexedWithTheApplicationTokenizer() throws SQLException {
+        assertThat(count("SELECT COUNT(*) FROM transaction_search_terms WHERE user_id = 1")).isEqualTo(7);
+        // Same normalization as SearchTokenizer: lowercase, diacritics stripped
+        assertThat(count("SELECT COUNT(*) FROM transaction_search_terms t JOIN transactions x ON x.id = t.transaction_id " +
+                "WHERE t.user_id = 1 AND t.term IN ('cafe', 'muller') AND x.amount = 300.00")).isEqualTo(2);
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, username, email, email_verified) " +
+                    "VALUES (1, 'existing', 'existing@example.com', 1)");
+            statement.execute("INSERT INTO categories (id, name, user_id) VALUES (1, 'Groceries', 1)");
+        }
+
+        try (PreparedStatement transactions = connection.prepareStatement(
+                "INSERT INTO transactions (amount, type, description, date, user_id, category_id) " +
+                        "VALUES (?, ?, ?, ?, 1, ?)")) {
+            addTransaction(transactions, "1000.00", "INCOME", "Salary", LocalDateTime.of(2024, 1, 1, 9, 0), null);
+            addTransaction(transactions, "200.00", "EXPENSE", "Weekly groceries", LocalDateTime.of(2024, 1, 15, 18, 0), 1L);
+            addTransaction(transactions, "300.00", "EXPENSE", "Café Müller", LocalDateTime.of(2024, 3, 1, 8, 0), null);
+            addTransaction(transactions, "-50.00", "INCOME", "Refund reversal", LocalDateTime.of(2024, 3, 20, 8, 0), null);
+            transactions.executeBatch();
+        }
+    }
+
+    private static void addTransaction(PreparedStatement statement, String amount, String type,
+                                       String description, LocalDateTime date, Long categoryId) throws SQLException {
+        statement.setBigDecimal(1, new BigDecimal(amount));
+        statement.setString(2, type);
+        statement.setString(3, description);
+        statement.setTimestamp(4, Timestamp.valueOf(date));
+        if (categoryId == null) {
+            statement.setNull(5, Types.BIGINT);
+        } else {
+            statement.setLong(5, categoryId);
+        }
+        statement.addBatch();
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            assertThat(rs.next()).isTrue();
+            return rs.getLong(1);
+        }
+    }
+
+    private static BigDecimal amount(String sql) throws SQLException {
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            assertThat(rs.next()).isTrue();
+            return rs.getBigDecimal(1);
+        }
+    }
+}
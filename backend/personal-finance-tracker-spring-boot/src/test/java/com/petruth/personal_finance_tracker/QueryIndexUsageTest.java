@@ -0,0 +1,330 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.repository.BudgetRepository;
+import com.petruth.personal_finance_tracker.repository.ImportedFileRepository;
+import com.petruth.personal_finance_tracker.repository.RefreshTokenRepository;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.specifications.TransactionSpecifications;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the main repository queries against the migrated schema, records the SQL Hibernate actually
+ * sends (MariaDB general log, with the bound values inlined by Connector/J), and checks with EXPLAIN
+ * that each statement is served by the expected index rather than a full table scan.
+ */
+class QueryIndexUsageTest {
+
+    private static final int USERS = 50;
+    private static final int TRANSACTIONS_PER_USER = 100;
+
+    private static String url;
+    private static AnnotationConfigApplicationContext context;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        url = EmbeddedMariaDb.createMigratedDatabase("index_usage");
+
+        try (Connection connection = EmbeddedMariaDb.connect(url)) {
+            connection.setAutoCommit(false);
+            seed(connection);
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE users, categories, transactions, budgets, refresh_tokens, imported_files");
+            }
+        }
+
+        context = new AnnotationConfigApplicationContext(RepositoryConfig.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void transactionHistoryUsesUserDateIndex() throws SQLException {
+        // A keyset slice as TransactionService.findByUserIdAfterCursor requests it
+        assertIndex("idx_transactions_user_date", () -> repository(TransactionRepository.class).findDtos(
+                TransactionSpecifications.belongsToUser(7)
+                        .and(TransactionSpecifications.seekAfter(LocalDateTime.of(2024, 6, 1, 9, 0), 900L, false)),
+                Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")), 21));
+    }
+
+    @Test
+    void transactionDateRangeUsesUserDateIndex() throws SQLException {
+        assertIndex("idx_transactions_user_date", () -> repository(TransactionRepository.class).findDtos(
+                TransactionSpecifications.belongsToUser(7)
+                        .and(TransactionSpecifications.dateAfter(LocalDateTime.of(2024, 3, 1, 0, 0)))
+                        .and(TransactionSpecifications.dateBefore(LocalDateTime.of(2024, 3, 31, 23, 59))),
+                Sort.by(Sort.Direction.DESC, "date")));
+    }
+
+    @Test
+    void transactionsByTypeUseUserTypeDateIndex() throws SQLException {
+        assertIndex("idx_transactions_user_type_date", () -> repository(TransactionRepository.class).findDtos(
+                TransactionSpecifications.belongsToUser(7)
+                        .and(TransactionSpecifications.hasType(Transaction.TransactionType.EXPENSE)),
+                Sort.by(Sort.Direction.ASC, "date")));
+    }
+
+    @Test
+    void balanceSumUsesUserDateIndex() throws SQLException {
+        assertIndex("idx_transactions_user_date", () -> repository(TransactionRepository.class).sumNetAmount(
+                7L, LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0)));
+    }
+
+    @Test
+    void budgetSpendingUsesUserCategoryDateIndex() throws SQLException {
+        // Budget 20 is one of user 7's (three per user, in user order)
+        assertIndex("idx_transactions_user_category_date",
+                () -> repository(BudgetRepository.class).recomputeSpent(20L));
+    }
+
+    @Test
+    void duplicateDetectionUsesAmountHashIndex() throws SQLException {
+        assertIndex("idx_transactions_amount_hash_user", () -> repository(TransactionRepository.class)
+                .existsByAmountHashAndUser("hash-7-42", repository(UserRepository.class).getReferenceById(7L)));
+    }
+
+    @Test
+    void budgetsByUserUseAnIndex() throws SQLException {
+        assertIndexed(() -> repository(BudgetRepository.class).findByUserIdWithCategory(7L));
+    }
+
+    @Test
+    void expiredTokenCleanupUsesExpiryIndex() throws SQLException {
+        assertIndex("idx_refresh_tokens_expiry_date",
+                () -> repository(RefreshTokenRepository.class).deleteExpiredTokens());
+    }
+
+    @Test
+    void verificationTokenLookupUsesTokenIndex() throws SQLException {
+        assertIndex("idx_users_email_verification_token",
+                () -> repository(UserRepository.class).findByEmailVerificationToken("token-7"));
+    }
+
+    @Test
+    void importRetentionUsesImportedAtIndex() throws SQLException {
+        assertIndex("idx_imported_files_imported_at", () -> repository(ImportedFileRepository.class)
+                .deleteByImportedAtBefore(LocalDateTime.of(2024, 1, 12, 0, 0)));
+    }
+
+    // Some statement of the call uses expectedIndex, and none of them scans a whole table
+    private static void assertIndex(String expectedIndex, Runnable call) throws SQLException {
+        List<Plan> plans = explain(issuedStatements(call));
+        assertThat(plans).extracting(Plan::key).as("indexes chosen for: %s", plans).contains(expectedIndex);
+        assertNoFullScan(plans);
+    }
+
+    private static void assertIndexed(Runnable call) throws SQLException {
+        List<Plan> plans = explain(issuedStatements(call));
+        assertThat(plans).allSatisfy(plan ->
+                assertThat(plan.key()).as("index chosen for: %s", plan.sql()).isNotNull());
+        assertNoFullScan(plans);
+    }
+
+    private static void assertNoFullScan(List<Plan> plans) {
+        // Derived tables (<derived2>, <subquery3>) are materialized in memory and always read whole
+        assertThat(plans).filteredOn(plan -> plan.table() == null || !plan.table().startsWith("<"))
+                .allSatisfy(plan -> assertThat(plan.type()).as("access type for: %s", plan.sql()).isNotEqualTo("ALL"));
+    }
+
+    // Runs the call in a transaction that is rolled back, and returns the statements it sent
+    private static List<String> issuedStatements(Runnable call) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement log = connection.createStatement()) {
+            log.execute("SET GLOBAL log_output = 'TABLE'");
+            log.execute("TRUNCATE TABLE mysql.general_log");
+            log.execute("SET GLOBAL general_log = 'ON'");
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    call.run();
+                    status.setRollbackOnly();
+                });
+            } finally {
+                log.execute("SET GLOBAL general_log = 'OFF'");
+            }
+
+            try (ResultSet rs = log.executeQuery("SELECT argument FROM mysql.general_log " +
+                    "WHERE command_type = 'Query' AND thread_id <> CONNECTION_ID() ORDER BY event_time")) {
+                while (rs.next()) {
+                    String sql = new String(rs.getBytes(1), StandardCharsets.UTF_8).strip();
+                    String verb = sql.split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+                    // Skip driver session setup (SELECT @@...) and transaction control
+                    if (List.of("select", "update", "delete").contains(verb) && !sql.contains("@@")) {
+                        statements.add(sql);
+                    }
+                }
+            }
+        }
+        assertThat(statements).as("statements issued").isNotEmpty();
+        return statements;
+    }
+
+    private static List<Plan> explain(List<String> statements) throws SQLException {
+        List<Plan> plans = new ArrayList<>();
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rs.next()) {
+                        plans.add(new Plan(sql, rs.getString("table"), rs.getString("type"), rs.getString("key")));
+                    }
+                }
+            }
+        }
+        return plans;
+    }
+
+    private record Plan(String sql, String table, String type, String key) {
+    }
+
+    private static <T> T repository(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class)
+    static class RepositoryConfig {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource(url, "root", "");
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            Properties jpa = new Properties();
+            jpa.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+            jpa.put("hibernate.hbm2ddl.auto", "none");
+
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("com.petruth.personal_finance_tracker.entity");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaProperties(jpa);
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (id, username, email, email_verified, email_verification_token, created_at) " +
+                        "VALUES (?, ?, ?, 1, ?, ?)");
+             PreparedStatement categories = connection.prepareStatement(
+                     "INSERT INTO categories (id, name, user_id) VALUES (?, ?, ?)");
+             PreparedStatement transactions = connection.prepareStatement(
+                     "INSERT INTO transactions (amount, type, description, date, user_id, category_id, amount_hash) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement budgets = connection.prepareStatement(
+                     "INSERT INTO budgets (name, amount, user_id, category_id, start_date, end_date, is_active) " +
+                             "VALUES (?, 500, ?, ?, '2024-01-01', '2024-12-31', 1)");
+             PreparedStatement tokens = connection.prepareStatement(
+                     "INSERT INTO refresh_tokens (user_id, token, expiry_date, created_at, revoked) VALUES (?, ?, ?, ?, 0)");
+             PreparedStatement imports = connection.prepareStatement(
+                     "INSERT INTO imported_files (user_id, original_filename, imported_at) VALUES (?, ?, ?)")) {
+
+            for (int c = 1; c <= 10; c++) {
+                categories.setLong(1, c);
+                categories.setString(2, "Category " + c);
+                categories.setNull(3, Types.BIGINT);
+                categories.addBatch();
+            }
+            categories.executeBatch();
+
+            for (int u = 1; u <= USERS; u++) {
+                Timestamp created = Timestamp.valueOf(start.plusDays(u));
+                users.setLong(1, u);
+                users.setString(2, "user" + u);
+                users.setString(3, "user" + u + "@example.com");
+                users.setString(4, "token-" + u);
+                users.setTimestamp(5, created);
+                users.addBatch();
+
+                for (int i = 0; i < TRANSACTIONS_PER_USER; i++) {
+                    transactions.setBigDecimal(1, BigDecimal.valueOf(10 + i));
+                    transactions.setString(2, i % 4 == 0 ? "INCOME" : "EXPENSE");
+                    transactions.setString(3, "Transaction " + i);
+                    transactions.setTimestamp(4, Timestamp.valueOf(start.plusDays(i * 3L)));
+                    transactions.setLong(5, u);
+                    transactions.setLong(6, 1 + i % 10);
+                    transactions.setString(7, "hash-" + u + "-" + i);
+                    transactions.addBatch();
+                }
+
+                for (int c = 1; c <= 3; c++) {
+                    budgets.setString(1, "Budget " + c);
+                    budgets.setLong(2, u);
+                    budgets.setLong(3, c);
+                    budgets.addBatch();
+                }
+
+                for (int i = 0; i < 5; i++) {
+                    Timestamp at = Timestamp.valueOf(start.plusDays(u * 5L + i));
+                    tokens.setLong(1, u);
+                    tokens.setString(2, "refresh-" + u + "-" + i);
+                    // Only the first user's tokens are expired, like a cleanup that runs every day
+                    tokens.setTimestamp(3, u == 1 ? at : Timestamp.valueOf(at.toLocalDateTime().plusYears(20)));
+                    tokens.setTimestamp(4, at);
+                    tokens.addBatch();
+
+                    imports.setLong(1, u);
+                    imports.setString(2, "statement-" + i + ".csv");
+                    imports.setTimestamp(3, at);
+                    imports.addBatch();
+                }
+            }
+
+            users.executeBatch();
+            transactions.executeBatch();
+            budgets.executeBatch();
+            tokens.executeBatch();
+            imports.executeBatch();
+        }
+    }
+}
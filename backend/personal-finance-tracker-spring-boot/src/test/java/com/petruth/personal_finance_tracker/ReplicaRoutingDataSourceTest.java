@@ -0,0 +1,138 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.datasource.RecentWrites;
+import com.petruth.personal_finance_tracker.datasource.ReplicaRoutingDataSource;
+import com.petruth.personal_finance_tracker.security.SecurityUtil;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes against two embedded databases, each holding a marker row naming itself,
+ * so every assertion sees which side actually served the statement.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static DataSource primary;
+    private static DataSource replica;
+
+    private RecentWrites recentWrites;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        primary = markedDatabase("routing_primary", "primary");
+        replica = markedDatabase("routing_replica", "replica");
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        Routed routed = routed(Duration.ofSeconds(5));
+
+        assertThat(routed.read()).isEqualTo("replica");
+        assertThat(routed.write()).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionsWithoutUserGoToReplica() {
+        Routed routed = routed(Duration.ofSeconds(5));
+        recentWrites.record(7L);
+
+        assertThat(routed.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryWithinWindow() {
+        Routed routed = routed(Duration.ofMinutes(5));
+        authenticate(7L);
+
+        assertThat(routed.read()).isEqualTo("replica");
+
+        routed.write();
+        recentWrites.record(7L);
+
+        assertThat(routed.read()).isEqualTo("primary");
+
+        // Other users are unaffected
+        authenticate(8L);
+        assertThat(routed.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void userReadsFromReplicaOnceWindowHasPassed() {
+        Routed routed = routed(Duration.ZERO);
+        authenticate(7L);
+        recentWrites.record(7L);
+
+        assertThat(routed.read()).isEqualTo("replica");
+    }
+
+    private Routed routed(Duration readYourWritesWindow) {
+        recentWrites = new RecentWrites(readYourWritesWindow);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(recentWrites, new SecurityUtil());
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Route.PRIMARY, primary,
+                ReplicaRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        return new Routed(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+    }
+
+    private record Routed(JdbcTemplate jdbc, DataSourceTransactionManager transactionManager) {
+
+        String read() {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            return readOnly.execute(status -> jdbc.queryForObject("SELECT name FROM route_marker", String.class));
+        }
+
+        String write() {
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+            return readWrite.execute(status -> {
+                jdbc.update("UPDATE route_marker SET touched = touched + 1");
+                return jdbc.queryForObject("SELECT name FROM route_marker", String.class);
+            });
+        }
+    }
+
+    private static void authenticate(long userId) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("user" + userId, null, List.of());
+        authentication.setDetails(Jwts.claims().add("userId", userId).build());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static DataSource markedDatabase(String database, String marker) throws SQLException {
+        String url = EmbeddedMariaDb.createMigratedDatabase(database);
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE route_marker (name VARCHAR(20) NOT NULL, touched INT NOT NULL DEFAULT 0)");
+            statement.execute("INSERT INTO route_marker (name) VALUES ('" + marker + "')");
+        }
+        return new DriverManagerDataSource(url, "root", "");
+    }
+}
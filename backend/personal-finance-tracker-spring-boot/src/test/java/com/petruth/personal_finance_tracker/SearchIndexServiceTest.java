@@ -0,0 +1,61 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.TransactionSearchTerm;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.repository.TransactionSearchTermRepository;
+import com.petruth.personal_finance_tracker.service.SearchIndexServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SearchIndexServiceTest {
+
+    private final TransactionSearchTermRepository searchTermRepository = mock(TransactionSearchTermRepository.class);
+    private final SearchIndexServiceImpl searchIndexService =
+            new SearchIndexServiceImpl(searchTermRepository, mock(TransactionRepository.class));
+
+    @Test
+    void indexesManyTransactionsWithOneBatchedInsert() {
+        searchIndexService.indexAll(List.of(
+                transaction(10L, "Lidl Militari", null),
+                transaction(11L, "Salariu", "Bonus")), false);
+
+        verify(searchTermRepository).insertTerms(List.of(
+                new TransactionSearchTerm.Key(1L, "lidl", 10L),
+                new TransactionSearchTerm.Key(1L, "militari", 10L),
+                new TransactionSearchTerm.Key(1L, "salariu", 11L),
+                new TransactionSearchTerm.Key(1L, "bonus", 11L)));
+        verify(searchTermRepository, never()).deleteByTransactionIdIn(any());
+    }
+
+    @Test
+    void replacingDropsTheOldTermsOfAllTransactionsAtOnce() {
+        searchIndexService.indexAll(List.of(
+                transaction(10L, "Lidl", null),
+                transaction(11L, "Kaufland", null)), true);
+
+        verify(searchTermRepository).deleteByTransactionIdIn(List.of(10L, 11L));
+        verify(searchTermRepository).insertTerms(List.of(
+                new TransactionSearchTerm.Key(1L, "lidl", 10L),
+                new TransactionSearchTerm.Key(1L, "kaufland", 11L)));
+    }
+
+    private static Transaction transaction(Long id, String description, String notes) {
+        User user = new User();
+        user.setId(1L);
+
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUser(user);
+        transaction.setDescription(description);
+        transaction.setNotes(notes);
+        return transaction;
+    }
+}
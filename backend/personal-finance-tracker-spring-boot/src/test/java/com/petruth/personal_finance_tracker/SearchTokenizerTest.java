@@ -0,0 +1,35 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.utils.SearchTokenizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTokenizerTest {
+
+    @Test
+    void shouldNormalizeCaseDiacriticsAndPunctuation() {
+        assertThat(SearchTokenizer.tokenize("Plată CARD: Mega-Image București", null, "  "))
+                .containsExactly("plata", "card", "mega", "image", "bucuresti");
+    }
+
+    @Test
+    void shouldMergeFieldsAndDropDuplicatesAndSingleCharacters() {
+        assertThat(SearchTokenizer.tokenize("Lidl a 12", "LIDL", "ramă nouă"))
+                .containsExactly("lidl", "12", "rama", "noua");
+    }
+
+    @Test
+    void queryTermsShouldUseSameNormalizationAndKeepShortPrefixes() {
+        assertThat(SearchTokenizer.queryTerms("Ștefan  b"))
+                .containsExactly("stefan", "b");
+    }
+
+    @Test
+    void queryTermsShouldBeCapped() {
+        assertThat(SearchTokenizer.queryTerms("a b c d e f g"))
+                .hasSize(SearchTokenizer.MAX_QUERY_TERMS);
+        assertThat(SearchTokenizer.queryTerms("   ")).isEmpty();
+        assertThat(SearchTokenizer.queryTerms("%_")).isEmpty();
+    }
+}
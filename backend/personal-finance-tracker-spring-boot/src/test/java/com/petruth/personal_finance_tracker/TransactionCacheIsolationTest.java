@@ -0,0 +1,122 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.dto.TransactionSnapshot;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.repository.TransactionRepository;
+import com.petruth.personal_finance_tracker.service.SpendingRollupService;
+import com.petruth.personal_finance_tracker.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TransactionCacheIsolationTest {
+
+    private static final int READER_ID = 1;
+    private static final int WRITER_ID = 2;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private TransactionRepository transactionRepository;
+
+    @MockitoBean
+    private SpendingRollupService spendingRollupService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setup() {
+        Objects.requireNonNull(cacheManager.getCache("transactions")).clear();
+
+        TransactionDTO dto = new TransactionDTO(1L, new BigDecimal("10.00"), "EXPENSE",
+                "Coffee", LocalDateTime.now(), (long) READER_ID, 1L, "Food");
+        when(transactionRepository.findDtos(any(Specification.class), any(Sort.class)))
+                .thenReturn(List.of(dto));
+        when(transactionRepository.findSnapshotById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(new TransactionSnapshot(
+                        invocation.getArgument(0), (long) WRITER_ID, null,
+                        Transaction.TransactionType.EXPENSE, BigDecimal.ONE, LocalDateTime.now())));
+    }
+
+    @Test
+    void writesByOneUserShouldNotEvictAnotherUsersEntries() throws Exception {
+        // warm the reader's cache: the only query the reader should ever trigger
+        transactionService.findByUserId(READER_ID, null, null, null, null, null, null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // writers keep deleting the writer's transactions, readers keep reading their own list
+        for (int w = 0; w < 4; w++) {
+            long base = w * 1000L;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (long i = 0; i < 50; i++) {
+                    transactionService.deleteById(base + i);
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    assertThat(transactionService.findByUserId(READER_ID, null, null, null, null, null, null))
+                            .hasSize(1);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // 200 writes by another user and 800 reads later, the reader is still at 100% hits
+        verify(transactionRepository, times(1)).findDtos(any(Specification.class), any(Sort.class));
+        verify(transactionRepository, times(200)).deleteById(anyLong());
+    }
+
+    @Test
+    void writesShouldInvalidateTheWritersOwnEntries() {
+        transactionService.findByUserId(WRITER_ID, null, null, null, null, null, null);
+        transactionService.findByUserId(WRITER_ID, null, null, null, null, null, null);
+        verify(transactionRepository, times(1)).findDtos(any(Specification.class), any(Sort.class));
+
+        transactionService.deleteById(42L);
+
+        transactionService.findByUserId(WRITER_ID, null, null, null, null, null, null);
+        verify(transactionRepository, times(2)).findDtos(any(Specification.class), any(Sort.class));
+    }
+}
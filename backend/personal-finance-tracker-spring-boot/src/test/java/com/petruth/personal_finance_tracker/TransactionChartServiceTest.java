@@ -0,0 +1,95 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.ChartGranularity;
+import com.petruth.personal_finance_tracker.dto.ChartPointDTO;
+import com.petruth.personal_finance_tracker.dto.ChartSeriesDTO;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.repository.ChartBucketView;
+import com.petruth.personal_finance_tracker.repository.TransactionChartRepository;
+import com.petruth.personal_finance_tracker.service.TransactionChartServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionChartServiceTest {
+
+    private final TransactionChartRepository chartRepository = mock(TransactionChartRepository.class);
+    private final TransactionChartServiceImpl chartService = new TransactionChartServiceImpl(chartRepository);
+
+    @Test
+    void mergesFixedWindowsAndKeepsEmptyOnes() {
+        // Ten days, activity only on the 1st, 2nd and 9th
+        List<ChartBucketView> rows = List.of(
+                row("2024-03-01", null, "10.00", 1),
+                row("2024-03-02", null, "5.00", 2),
+                row("2024-03-09", null, "7.50", 1));
+        when(chartRepository.aggregateTransactions(anyLong(), anyString(), anyString(), anyBoolean(), any(), any()))
+                .thenReturn(rows);
+
+        ChartSeriesDTO series = chartService.getSeries(1, Transaction.TransactionType.EXPENSE, ChartGranularity.DAY,
+                false, "2024-03-01T00:00:00", "2024-03-10T23:59:59", 5);
+
+        assertThat(series.downsampled()).isTrue();
+        assertThat(series.points()).extracting(ChartPointDTO::bucket).containsExactly(
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 5),
+                LocalDate.of(2024, 3, 7), LocalDate.of(2024, 3, 9));
+        assertThat(series.points()).extracting(ChartPointDTO::total).usingComparatorForType(BigDecimal::compareTo,
+                BigDecimal.class).containsExactly(new BigDecimal("15.00"), BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, new BigDecimal("7.50"));
+        assertThat(series.points()).extracting(ChartPointDTO::count).containsExactly(3L, 0L, 0L, 0L, 1L);
+    }
+
+    @Test
+    void alignsCategoryWindowsSoStackedSeriesLineUp() {
+        List<ChartBucketView> rows = List.of(
+                row("2023-01-01", 1L, "20.00", 1),
+                row("2023-04-01", 2L, "30.00", 1),
+                row("2023-06-01", 1L, "40.00", 2));
+        when(chartRepository.aggregateRollups(anyLong(), anyString(), anyString(), anyBoolean())).thenReturn(rows);
+
+        ChartSeriesDTO series = chartService.getSeries(1, Transaction.TransactionType.EXPENSE, ChartGranularity.MONTH,
+                true, null, null, 2);
+
+        // Six months in two windows of three, one point per category and window
+        assertThat(series.points()).extracting(ChartPointDTO::bucket, ChartPointDTO::categoryId, ChartPointDTO::count)
+                .containsExactly(
+                        tuple(LocalDate.of(2023, 1, 1), 1L, 1L),
+                        tuple(LocalDate.of(2023, 1, 1), 2L, 0L),
+                        tuple(LocalDate.of(2023, 4, 1), 1L, 2L),
+                        tuple(LocalDate.of(2023, 4, 1), 2L, 1L));
+    }
+
+    @Test
+    void leavesShortRangesUntouched() {
+        List<ChartBucketView> rows = List.of(row("2024-03-04", null, "10.00", 1), row("2024-03-18", null, "5.00", 1));
+        when(chartRepository.aggregateTransactions(anyLong(), anyString(), anyString(), anyBoolean(), any(), any()))
+                .thenReturn(rows);
+
+        ChartSeriesDTO series = chartService.getSeries(1, Transaction.TransactionType.EXPENSE, ChartGranularity.WEEK,
+                false, "2024-03-06T00:00:00", "2024-03-20T00:00:00", 3);
+
+        assertThat(series.downsampled()).isFalse();
+        assertThat(series.points()).hasSize(2);
+    }
+
+    private static ChartBucketView row(String bucket, Long categoryId, String total, long count) {
+        ChartBucketView row = mock(ChartBucketView.class);
+        when(row.getBucket()).thenReturn(bucket);
+        when(row.getCategoryId()).thenReturn(categoryId);
+        when(row.getCategoryName()).thenReturn(categoryId != null ? "Category " + categoryId : null);
+        when(row.getTotal()).thenReturn(new BigDecimal(total));
+        when(row.getTxCount()).thenReturn(count);
+        return row;
+    }
+}
@@ -0,0 +1,105 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.dto.BulkResult;
+import com.petruth.personal_finance_tracker.dto.TransactionDTO;
+import com.petruth.personal_finance_tracker.entity.Category;
+import com.petruth.personal_finance_tracker.entity.Transaction;
+import com.petruth.personal_finance_tracker.entity.User;
+import com.petruth.personal_finance_tracker.repository.CategoryRepository;
+import com.petruth.personal_finance_tracker.repository.UserRepository;
+import com.petruth.personal_finance_tracker.service.TransactionService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes transactions through TransactionService against the real schema and finds them again by
+ * search term. With pooled ids the transaction rows are only flushed later, so this catches terms
+ * written before their parent row exists.
+ */
+class TransactionSearchIndexTest {
+
+    private static ConfigurableApplicationContext context;
+    private static TransactionService transactionService;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        String url = EmbeddedMariaDb.createMigratedDatabase("search_index");
+        try (Connection connection = EmbeddedMariaDb.connect(url);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO users (id, username, email, email_verified) " +
+                    "VALUES (1, 'search', 'search@example.com', 1)");
+            statement.executeUpdate("INSERT INTO categories (id, name) VALUES (1, 'Food')");
+        }
+
+        context = new SpringApplicationBuilder(PersonalFinanceTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=root",
+                        "spring.datasource.password=",
+                        "jwt.secret.key=c2VhcmNoLWluZGV4LXRlc3Qtb25seS1zZWNyZXQta2V5LW5vdC11c2VkLWZvci10b2tlbnM=",
+                        "spring.mail.username=test",
+                        "spring.mail.password=test")
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void singleCreateIsFoundByItsTerms() {
+        Transaction saved = transactionService.saveFromDTO(new TransactionDTO(null, new BigDecimal("42.00"),
+                "EXPENSE", "Lidl Militari", LocalDateTime.of(2024, 5, 2, 10, 0), 1L, 1L, null));
+
+        assertThat(search("lidl mil")).containsExactly(saved.getId());
+    }
+
+    @Test
+    void bulkCreateIsFoundByItsTerms() {
+        BulkResult result = transactionService.createAll(1L, List.of(
+                new TransactionDTO(null, new BigDecimal("15.00"), "EXPENSE", "Kaufland Vitan",
+                        LocalDateTime.of(2024, 5, 3, 10, 0), null, 1L, null),
+                new TransactionDTO(null, new BigDecimal("25.00"), "EXPENSE", "Kaufland Pipera",
+                        LocalDateTime.of(2024, 5, 4, 10, 0), null, 1L, null)));
+
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(search("kaufland")).hasSize(2);
+        assertThat(search("pipera")).hasSize(1);
+    }
+
+    @Test
+    void importedChunkIsFoundByItsTerms() {
+        User user = context.getBean(UserRepository.class).findById(1L).orElseThrow();
+        Category category = context.getBean(CategoryRepository.class).findById(1L).orElseThrow();
+
+        Transaction imported = new Transaction(null, new BigDecimal("9.99"), Transaction.TransactionType.EXPENSE,
+                "Mega Image Unirii", LocalDateTime.of(2024, 5, 5, 10, 0), user, category);
+        imported.setSource("csv_import");
+        transactionService.importChunk(List.of(imported));
+        transactionService.finishImport(1L);
+
+        assertThat(search("mega unirii")).hasSize(1);
+    }
+
+    private static List<Long> search(String query) {
+        return transactionService.search(1, query, null, null, null, null, null, null, 0, 20)
+                .map(TransactionDTO::getId)
+                .getContent();
+    }
+}
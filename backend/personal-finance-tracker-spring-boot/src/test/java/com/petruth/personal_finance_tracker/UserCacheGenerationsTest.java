@@ -0,0 +1,61 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.cache.UserCacheGenerations;
+import com.petruth.personal_finance_tracker.cache.UserDataVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCacheGenerationsTest {
+
+    @Test
+    void bumpShouldAdvanceOnlyTheWritersGeneration() {
+        UserCacheGenerations generations = generations(Duration.ofHours(2));
+
+        generations.bump("transactions", 1L);
+        generations.bump("transactions", 1L);
+
+        assertThat(generations.current("transactions", 1L)).isEqualTo(2L);
+        assertThat(generations.current("transactions", 2L)).isZero();
+        assertThat(generations.current("budgets", 1L)).isZero();
+    }
+
+    @Test
+    void idleGenerationsShouldBeForgotten() {
+        UserCacheGenerations generations = generations(Duration.ZERO);
+
+        generations.bump("transactions", 1L);
+
+        assertThat(generations.current("transactions", 1L)).isZero();
+    }
+
+    @Test
+    void syncShouldDropAUsersEntriesOnlyWhenTheSharedVersionMoved() {
+        UserCacheGenerations generations = generations(Duration.ofHours(2));
+
+        generations.sync(1L, 4L);
+        long synced = generations.current("transactions", 1L);
+
+        // Same version again: nothing was written elsewhere, entries stay reachable
+        generations.sync(1L, 4L);
+        assertThat(generations.current("transactions", 1L)).isEqualTo(synced);
+
+        // Written on another instance: every cache of that user moves on, other users keep theirs
+        generations.sync(1L, 6L);
+        assertThat(generations.current("transactions", 1L)).isEqualTo(synced + 1);
+        assertThat(generations.current("budgets", 1L)).isEqualTo(synced + 1);
+        assertThat(generations.current("transactions", 2L)).isZero();
+    }
+
+    private static UserCacheGenerations generations(Duration expireAfterAccess) {
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCacheNames()).thenReturn(List.of("transactions", "budgets"));
+        return new UserCacheGenerations(cacheManager, mock(UserDataVersions.class), expireAfterAccess);
+    }
+}
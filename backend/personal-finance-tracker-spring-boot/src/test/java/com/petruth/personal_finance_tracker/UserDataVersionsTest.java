@@ -0,0 +1,147 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.cache.UserDataVersions;
+import com.petruth.personal_finance_tracker.datasource.RecentWrites;
+import com.petruth.personal_finance_tracker.repository.UserDataVersionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two UserDataVersions over one database stand in for two application instances:
+ * a write through either one must change the ETag both of them compute.
+ */
+class UserDataVersionsTest {
+
+    private static EntityManagerFactory emf;
+    private static TransactionTemplate transactionTemplate;
+    private static UserDataVersions instanceA;
+    private static UserDataVersions instanceB;
+    private static UserDataVersions withReplica;
+
+    @BeforeAll
+    static void setup() {
+        String url = EmbeddedMariaDb.createMigratedDatabase("user_data_versions");
+
+        Properties jpa = new Properties();
+        jpa.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        jpa.put("hibernate.hbm2ddl.auto", "none");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(url, "root", ""));
+        factory.setPackagesToScan("com.petruth.personal_finance_tracker.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaProperties(jpa);
+        factory.afterPropertiesSet();
+        emf = factory.getObject();
+
+        UserDataVersionRepository repository =
+                new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(emf))
+                        .getRepository(UserDataVersionRepository.class);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(emf));
+        instanceA = new UserDataVersions(repository, new RecentWrites(Duration.ofSeconds(5)), false);
+        instanceB = new UserDataVersions(repository, new RecentWrites(Duration.ofSeconds(5)), false);
+        withReplica = new UserDataVersions(repository, new RecentWrites(Duration.ofSeconds(5)), true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    void writeOnOneInstanceChangesTheEtagOnTheOther() {
+        String before = etag(instanceB, 1L, "/api/users/1/budgets", null);
+        assertThat(etag(instanceB, 1L, "/api/users/1/budgets", null)).isEqualTo(before);
+
+        bump(instanceA, 1L);
+
+        assertThat(etag(instanceB, 1L, "/api/users/1/budgets", null)).isNotEqualTo(before);
+        assertThat(instanceA.current(1L)).isEqualTo(instanceB.current(1L));
+    }
+
+    @Test
+    void writesByAnotherUserShouldNotChangeTheEtag() {
+        String before = etag(instanceA, 3L, "/api/users/3/transactions", "type=EXPENSE");
+
+        bump(instanceB, 4L);
+
+        assertThat(etag(instanceA, 3L, "/api/users/3/transactions", "type=EXPENSE")).isEqualTo(before);
+    }
+
+    @Test
+    void rolledBackWritesShouldNotChangeTheEtag() {
+        long before = instanceA.current(5L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            instanceA.bump(5L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(instanceB.current(5L)).isEqualTo(before);
+    }
+
+    @Test
+    void etagShouldDependOnTheExactRequest() {
+        assertThat(etag(instanceA, 1L, "/api/users/1/transactions", "type=EXPENSE"))
+                .isNotEqualTo(etag(instanceA, 1L, "/api/users/1/transactions", "type=INCOME"))
+                .isNotEqualTo(etag(instanceA, 1L, "/api/users/1/transactions", null));
+    }
+
+    @Test
+    void sharedWritesShouldChangeEveryUsersEtag() {
+        String user1 = etag(instanceA, 1L, "/api/users/1/categories", null);
+        String user2 = etag(instanceB, 2L, "/api/users/2/categories", null);
+
+        transactionTemplate.executeWithoutResult(status -> instanceA.bumpAll());
+
+        assertThat(etag(instanceA, 1L, "/api/users/1/categories", null)).isNotEqualTo(user1);
+        assertThat(etag(instanceB, 2L, "/api/users/2/categories", null)).isNotEqualTo(user2);
+    }
+
+    @Test
+    void bodiesAreAlwaysTaggableWithoutAReplica() {
+        assertThat(instanceA.describes(6L, instanceA.current(6L))).isTrue();
+    }
+
+    @Test
+    void replicaReadsOutsideTheWriteWindowShouldNotBeTagged() {
+        assertThat(withReplica.describes(7L, withReplica.current(7L))).isFalse();
+
+        bump(withReplica, 7L);
+
+        assertThat(withReplica.describes(7L, withReplica.current(7L))).isTrue();
+    }
+
+    @Test
+    void writesWhileTheBodyWasBuiltShouldDropTheTag() {
+        bump(withReplica, 8L);
+        long version = withReplica.current(8L);
+
+        bump(instanceA, 8L);
+
+        assertThat(withReplica.describes(8L, version)).isFalse();
+    }
+
+    private static void bump(UserDataVersions versions, long userId) {
+        // The write transaction the services would provide
+        transactionTemplate.executeWithoutResult(status -> versions.bump(userId));
+    }
+
+    private static String etag(UserDataVersions versions, long userId, String uri, String query) {
+        return versions.etag(userId, versions.current(userId), uri, query);
+    }
+}
@@ -0,0 +1,143 @@
+package com.petruth.personal_finance_tracker;
+
+import com.petruth.personal_finance_tracker.utils.AmountScanner;
+import com.petruth.personal_finance_tracker.utils.DateScanner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Values/second for reading import dates and amounts: the previous parsing (up to 18
+ * DateTimeFormatters tried per date with exceptions as control flow, regex clean-up per amount)
+ * versus inferring one layout per file and scanning with DateScanner/AmountScanner.
+ *
+ * Not part of the default build: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ValueParsingBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int ROUNDS = 5;
+
+    // Same formatter list the importers used to try in order
+    private static final DateTimeFormatter[] LEGACY_DATE_FORMATS = new DateTimeFormatter[]{
+            DateTimeFormatter.ofPattern("d.MM.yyyy"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("d/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("d-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("d.MM.yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("d/MM/yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("d-MM-yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("d MMM yyyy", Locale.of("ro")),
+            DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.of("ro")),
+            DateTimeFormatter.ofPattern("d MMM. yyyy", Locale.of("ro")),
+            DateTimeFormatter.ofPattern("dd MMM. yyyy", Locale.of("ro"))
+    };
+
+    @Test
+    void valueParsingBeforeAndAfter() {
+        // A bank export with ISO dates (7th formatter) and Romanian amounts
+        List<String> dates = new ArrayList<>(ROWS);
+        List<String> amounts = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            dates.add(start.plusDays(i % 700).toString());
+            amounts.add((i % 3 == 0 ? "-" : "") + (1 + i % 4_000) + "." + (100 + i % 900) + "," + (10 + i % 90) + " RON");
+        }
+
+        // Both sides must agree before their speed means anything
+        DateScanner dateScanner = DateScanner.infer(dates.subList(0, 50));
+        AmountScanner amountScanner = AmountScanner.infer(amounts.subList(0, 50));
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(dateScanner.scan(dates.get(i))).isEqualTo(legacyDate(dates.get(i)).toLocalDate());
+            assertThat(BigDecimal.valueOf(amountScanner.scan(amounts.get(i)), 2))
+                    .isEqualByComparingTo(BigDecimal.valueOf(legacyAmount(amounts.get(i))));
+        }
+
+        // warm-up so class loading and JIT do not count against the first run
+        runLegacy(dates, amounts);
+        runScanners(dates, amounts);
+
+        double before = 0;
+        double after = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            before = Math.max(before, runLegacy(dates, amounts));
+            after = Math.max(after, runScanners(dates, amounts));
+        }
+
+        System.out.printf("%nParsing %,d dates and amounts (best of %d)%n", ROWS, ROUNDS);
+        System.out.printf("  before (formatter loop, regex clean-up): %,12.0f rows/s%n", before);
+        System.out.printf("  after  (inferred layout, scanners):      %,12.0f rows/s%n", after);
+        System.out.printf("  speed-up: %.1fx%n%n", after / before);
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    private static double runLegacy(List<String> dates, List<String> amounts) {
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < dates.size(); i++) {
+            checksum += legacyDate(dates.get(i)).getDayOfMonth();
+            checksum += (long) legacyAmount(amounts.get(i)).doubleValue();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(checksum).isNotZero();
+        return dates.size() / seconds;
+    }
+
+    private static double runScanners(List<String> dates, List<String> amounts) {
+        long start = System.nanoTime();
+        long checksum = 0;
+        // inference is part of the cost: once per file
+        DateScanner dateScanner = DateScanner.infer(dates.subList(0, 50));
+        AmountScanner amountScanner = AmountScanner.infer(amounts.subList(0, 50));
+        for (int i = 0; i < dates.size(); i++) {
+            checksum += dateScanner.scan(dates.get(i)).getDayOfMonth();
+            checksum += amountScanner.scan(amounts.get(i)) / 100;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(checksum).isNotZero();
+        return dates.size() / seconds;
+    }
+
+    // CsvImportService.parseDate before format inference
+    private static LocalDateTime legacyDate(String dateStr) {
+        for (DateTimeFormatter formatter : LEGACY_DATE_FORMATS) {
+            try {
+                return LocalDate.parse(dateStr, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Try next format
+            }
+        }
+        return null;
+    }
+
+    // PdfImportService.parseRomanianAmount before the scanners
+    private static Double legacyAmount(String amount) {
+        String cleaned = amount.replaceAll("[^0-9,\\.\\-+]", "");
+        if (cleaned.contains(".") && cleaned.contains(",")) {
+            cleaned = cleaned.replaceAll("\\.", "");
+            cleaned = cleaned.replace(',', '.');
+        } else if (cleaned.contains(",")) {
+            cleaned = cleaned.replace(',', '.');
+        }
+        return new BigDecimal(cleaned).doubleValue();
+    }
+}